@@ -8,12 +8,33 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
 -- Create tables (JPA will handle this, but we can define them explicitly for better control)
 
+-- Dimension tables referenced by reviews; hotel ids come from the source data
+CREATE TABLE IF NOT EXISTS hotels (
+    id BIGINT PRIMARY KEY,
+    platform VARCHAR(50),
+    hotel_name VARCHAR(255),
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS countries (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_countries_name UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS room_types (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_room_types_name UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS review_groups (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_review_groups_name UNIQUE
+);
+
 -- Reviews table
 CREATE TABLE IF NOT EXISTS reviews (
     id BIGSERIAL PRIMARY KEY,
-    hotel_id BIGINT NOT NULL,
-    platform VARCHAR(50) NOT NULL,
-    hotel_name VARCHAR(255),
+    hotel_id BIGINT NOT NULL REFERENCES hotels(id),
     review_id VARCHAR(100) NOT NULL,
     provider_id BIGINT NOT NULL,
     rating DOUBLE PRECISION,
@@ -21,20 +42,18 @@ CREATE TABLE IF NOT EXISTS reviews (
     review_comments TEXT,
     review_date TIMESTAMP,
     check_in_date VARCHAR(50),
-    reviewer_country VARCHAR(100),
+    reviewer_country_id INTEGER REFERENCES countries(id),
     reviewer_name VARCHAR(255),
-    room_type VARCHAR(255),
+    room_type_id INTEGER REFERENCES room_types(id),
     length_of_stay INTEGER,
-    review_group_name VARCHAR(255),
+    review_group_id INTEGER REFERENCES review_groups(id),
     translate_source VARCHAR(10),
     translate_target VARCHAR(10),
     processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     source_file VARCHAR(500),
+    content_hash BIGINT, -- Lets re-ingestion skip rows whose content has not changed
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    
-    -- Unique constraint to prevent duplicate reviews
-    UNIQUE(review_id, provider_id)
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Overall ratings table
@@ -47,42 +66,65 @@ CREATE TABLE IF NOT EXISTS overall_ratings (
     review_count INTEGER,
     grades JSONB, -- Using JSONB for better performance
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    
-    -- Unique constraint for hotel-provider combination
-    UNIQUE(hotel_id, provider_id)
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
--- Processed files table
+-- Processed files table; status and the committed offset/line let an interrupted file resume
 CREATE TABLE IF NOT EXISTS processed_files (
     id BIGSERIAL PRIMARY KEY,
     filename VARCHAR(500) NOT NULL UNIQUE,
     processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     records_processed INTEGER DEFAULT 0,
-    processing_duration_ms BIGINT DEFAULT 0
+    processing_duration_ms BIGINT DEFAULT 0,
+    status VARCHAR(20),
+    committed_offset BIGINT,
+    committed_line BIGINT,
+    source_size BIGINT,
+    failed_lines INTEGER
+);
+
+-- Lines that could not be parsed or validated, kept for inspection and replay
+CREATE TABLE IF NOT EXISTS dead_letter_lines (
+    id BIGSERIAL PRIMARY KEY,
+    source_file VARCHAR(500) NOT NULL,
+    line_number BIGINT NOT NULL,
+    reason VARCHAR(1000),
+    raw_line TEXT,
+    created_at TIMESTAMP
 );
 
--- Create indexes for better query performance
-CREATE INDEX IF NOT EXISTS idx_reviews_hotel_id ON reviews(hotel_id);
-CREATE INDEX IF NOT EXISTS idx_reviews_platform ON reviews(platform);
-CREATE INDEX IF NOT EXISTS idx_reviews_review_date ON reviews(review_date);
+-- Last key listed under each prefix, so a rescan can start after it
+CREATE TABLE IF NOT EXISTS listing_watermarks (
+    id BIGSERIAL PRIMARY KEY,
+    prefix VARCHAR(500) NOT NULL,
+    watermark_key VARCHAR(1024) NOT NULL,
+    recorded_at TIMESTAMP NOT NULL
+);
+
+-- Create indexes for better query performance; names match the JPA mappings so ddl-auto=update
+-- does not add duplicates
+CREATE UNIQUE INDEX IF NOT EXISTS idx_review_provider ON reviews(review_id, provider_id);
+CREATE INDEX IF NOT EXISTS idx_hotel_id ON reviews(hotel_id);
+CREATE INDEX IF NOT EXISTS idx_review_date ON reviews(review_date);
 CREATE INDEX IF NOT EXISTS idx_reviews_provider_id ON reviews(provider_id);
 CREATE INDEX IF NOT EXISTS idx_reviews_source_file ON reviews(source_file);
+CREATE INDEX IF NOT EXISTS idx_hotels_platform ON hotels(platform);
 
-CREATE INDEX IF NOT EXISTS idx_overall_ratings_hotel_provider ON overall_ratings(hotel_id, provider_id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_hotel_provider ON overall_ratings(hotel_id, provider_id);
 CREATE INDEX IF NOT EXISTS idx_overall_ratings_provider ON overall_ratings(provider);
 
-CREATE INDEX IF NOT EXISTS idx_processed_files_filename ON processed_files(filename);
 CREATE INDEX IF NOT EXISTS idx_processed_files_processed_at ON processed_files(processed_at);
+CREATE INDEX IF NOT EXISTS idx_dead_letter_source_file ON dead_letter_lines(source_file, line_number);
+CREATE INDEX IF NOT EXISTS idx_listing_watermark_prefix ON listing_watermarks(prefix, recorded_at);
 
 -- Create a function to update the updated_at timestamp
 CREATE OR REPLACE FUNCTION update_updated_at_column()
-RETURNS TRIGGER AS $
+RETURNS TRIGGER AS $$
 BEGIN
     NEW.updated_at = CURRENT_TIMESTAMP;
     RETURN NEW;
 END;
-$ language 'plpgsql';
+$$ language 'plpgsql';
 
 -- Create triggers to automatically update updated_at
 CREATE TRIGGER update_reviews_updated_at 
@@ -96,13 +138,17 @@ CREATE TRIGGER update_overall_ratings_updated_at
 -- Insert some sample data for testing (optional)
 -- This can be commented out in production
 /*
+INSERT INTO hotels (id, platform, hotel_name, updated_at)
+VALUES (10984, 'Agoda', 'Oscar Saigon Hotel', CURRENT_TIMESTAMP)
+ON CONFLICT (id) DO NOTHING;
+
 INSERT INTO reviews (
-    hotel_id, platform, hotel_name, review_id, provider_id, rating,
-    review_title, review_comments, review_date, reviewer_country, reviewer_name
+    hotel_id, review_id, provider_id, rating,
+    review_title, review_comments, review_date, reviewer_name
 ) VALUES (
-    10984, 'Agoda', 'Oscar Saigon Hotel', '948353737', 332, 6.4,
+    10984, '948353737', 332, 6.4,
     'Perfect location and safe but hotel under renovation',
     'Hotel room is basic and very small. not much like pictures.',
-    '2025-04-10 05:37:00', 'India', 'Test User'
+    '2025-04-10 05:37:00', 'Test User'
 ) ON CONFLICT (review_id, provider_id) DO NOTHING;
 */
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.reviewsystem.application.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.reviewsystem.domain.dto.ReviewJsonDto;
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binds each line to a ReviewJsonDto tree, then copies it into the target rows
+@Component
+@ConditionalOnProperty(name = "app.processing.parser", havingValue = "databind")
+public class DatabindReviewLineParser implements ReviewLineParser {
+
+    private final ObjectReader reader;
+    private final StringDictionary dictionary;
+
+    public DatabindReviewLineParser(ObjectMapper objectMapper, StringDictionary dictionary) {
+        this.reader = objectMapper.readerFor(ReviewJsonDto.class);
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public ParsedReview parse(byte[] data, int offset, int length, String sourceFile) throws IOException {
+        ReviewJsonDto reviewDto = reader.readValue(data, offset, length);
+        if (!isValidReview(reviewDto)) {
+            return null;
+        }
+
+        List<OverallRating> ratings = new ArrayList<>();
+        if (reviewDto.getOverallByProviders() != null) {
+            for (ReviewJsonDto.OverallProviderDto overallDto : reviewDto.getOverallByProviders()) {
+                ratings.add(transformToOverallRating(overallDto, reviewDto.getHotelId()));
+            }
+        }
+        Review review = transformToReview(reviewDto, sourceFile);
+        review.setContentHash(ReviewFingerprint.of(review));
+        return new ParsedReview(review, ratings);
+    }
+
+    private Review transformToReview(ReviewJsonDto dto, String sourceFile) {
+        ReviewJsonDto.CommentDto comment = dto.getComment();
+        ReviewJsonDto.ReviewerInfoDto reviewerInfo = comment.getReviewerInfo();
+        
+        return Review.builder()
+                .hotelId(dto.getHotelId())
+                .platform(dictionary.canonical(dto.getPlatform()))
+                .hotelName(dictionary.canonical(dto.getHotelName()))
+                .reviewId(String.valueOf(comment.getHotelReviewId()))
+                .providerId(comment.getProviderId())
+                .rating(comment.getRating())
+                .reviewTitle(comment.getReviewTitle())
+                .reviewComments(comment.getReviewComments())
+                .reviewDate(ReviewDateParser.parse(comment.getReviewDate()))
+                .checkInDate(dictionary.canonical(comment.getCheckInDateMonthAndYear()))
+                .reviewerCountry(reviewerInfo != null ? dictionary.canonical(reviewerInfo.getCountryName()) : null)
+                .reviewerName(reviewerInfo != null ? reviewerInfo.getDisplayMemberName() : null)
+                .roomType(reviewerInfo != null ? dictionary.canonical(reviewerInfo.getRoomTypeName()) : null)
+                .lengthOfStay(reviewerInfo != null ? reviewerInfo.getLengthOfStay() : null)
+                .reviewGroupName(reviewerInfo != null ? dictionary.canonical(reviewerInfo.getReviewGroupName()) : null)
+                .translateSource(dictionary.canonical(comment.getTranslateSource()))
+                .translateTarget(dictionary.canonical(comment.getTranslateTarget()))
+                .sourceFile(sourceFile)
+                .build();
+    }
+
+    private OverallRating transformToOverallRating(ReviewJsonDto.OverallProviderDto dto, Long hotelId) {
+        return OverallRating.builder()
+                .hotelId(hotelId)
+                .providerId(dto.getProviderId())
+                .provider(dictionary.canonical(dto.getProvider()))
+                .overallScore(dto.getOverallScore())
+                .reviewCount(dto.getReviewCount())
+                .grades(canonicalKeys(dto.getGrades()))
+                .build();
+    }
+
+    private Map<String, Double> canonicalKeys(Map<String, Double> grades) {
+        if (grades == null) {
+            return null;
+        }
+        Map<String, Double> canonical = new LinkedHashMap<>(grades.size() * 2);
+        grades.forEach((name, score) -> canonical.put(dictionary.canonical(name), score));
+        return canonical;
+    }
+
+    private boolean isValidReview(ReviewJsonDto dto) {
+        return dto != null &&
+               dto.getHotelId() != null && 
+               dto.getComment() != null && 
+               dto.getComment().getHotelReviewId() != null &&
+               dto.getComment().getProviderId() != null;
+    }
+}
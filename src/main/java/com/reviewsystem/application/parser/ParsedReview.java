@@ -0,0 +1,12 @@
+package com.reviewsystem.application.parser;
+
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+
+import java.util.List;
+
+@lombok.Value
+public class ParsedReview {
+    Review review;
+    List<OverallRating> overallRatings;
+}
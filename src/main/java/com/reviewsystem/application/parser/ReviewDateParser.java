@@ -0,0 +1,91 @@
+package com.reviewsystem.application.parser;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@Slf4j
+public final class ReviewDateParser {
+
+    // Upstream layout: 2025-04-10T05:37:00+07:00 (or a trailing Z)
+    private static final int OFFSET_START = 19;
+
+    private ReviewDateParser() {
+    }
+
+    public static LocalDateTime parse(String reviewDate) {
+        if (reviewDate == null) {
+            return null;
+        }
+        LocalDateTime fast = parseFixedLayout(reviewDate);
+        if (fast != null) {
+            return fast;
+        }
+        try {
+            return LocalDateTime.parse(reviewDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        } catch (Exception e) {
+            log.warn("Failed to parse review date: {}", reviewDate);
+            return null;
+        }
+    }
+
+    // Reads the fixed-width fields directly; anything else (fractions, odd offsets, bad values)
+    // returns null and goes through the formatter. Like the formatter, the offset is validated
+    // but the local date-time is returned as written.
+    static LocalDateTime parseFixedLayout(String text) {
+        int length = text.length();
+        if (length != OFFSET_START + 1 && length != OFFSET_START + 6) {
+            return null;
+        }
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+        if (!validOffset(text, length)) {
+            return null;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean validOffset(String text, int length) {
+        char sign = text.charAt(OFFSET_START);
+        if (length == OFFSET_START + 1) {
+            return sign == 'Z';
+        }
+        if ((sign != '+' && sign != '-') || text.charAt(OFFSET_START + 3) != ':') {
+            return false;
+        }
+        int hours = digits(text, OFFSET_START + 1, 2);
+        int minutes = digits(text, OFFSET_START + 4, 2);
+        return hours >= 0 && minutes >= 0 && minutes < 60 && (hours < 18 || (hours == 18 && minutes == 0));
+    }
+
+    // Value of count ASCII digits starting at start, or -1 if any of them is not a digit
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,47 @@
+package com.reviewsystem.application.parser;
+
+import com.reviewsystem.domain.model.Review;
+
+// 64-bit FNV-1a over the fields a provider can revise. Stored as reviews.content_hash so an
+// unchanged review reappearing in a later dump is recognised without comparing its text.
+public final class ReviewFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ReviewFingerprint() {
+    }
+
+    public static long of(Review review) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, review.getRating() == null ? Long.MIN_VALUE : Double.doubleToLongBits(review.getRating()));
+        hash = mix(hash, review.getReviewTitle());
+        hash = mix(hash, review.getReviewComments());
+        hash = mix(hash, review.getReviewerCountry());
+        hash = mix(hash, review.getReviewerName());
+        hash = mix(hash, review.getRoomType());
+        hash = mix(hash, review.getLengthOfStay() == null ? Long.MIN_VALUE : review.getLengthOfStay());
+        hash = mix(hash, review.getReviewGroupName());
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, Long.MIN_VALUE);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * PRIME;
+            hash = (hash ^ (c >>> 8)) * PRIME;
+        }
+        // Length terminates the field so ("ab", "c") and ("a", "bc") differ
+        return mix(hash, (long) value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,16 @@
+package com.reviewsystem.application.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public interface ReviewLineParser {
+
+    // Parses the UTF-8 line in data[offset, offset + length) without decoding it to a String first.
+    // Returns null when the line is well-formed JSON but lacks the fields a review needs.
+    ParsedReview parse(byte[] data, int offset, int length, String sourceFile) throws IOException;
+
+    default ParsedReview parse(String line, String sourceFile) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parse(bytes, 0, bytes.length, sourceFile);
+    }
+}
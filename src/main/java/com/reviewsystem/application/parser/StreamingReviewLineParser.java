@@ -0,0 +1,218 @@
+package com.reviewsystem.application.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Walks the token stream once, filling Review and OverallRating rows directly and skipping unused fields
+@Component
+@ConditionalOnProperty(name = "app.processing.parser", havingValue = "streaming", matchIfMissing = true)
+public class StreamingReviewLineParser implements ReviewLineParser {
+
+    private final JsonFactory jsonFactory;
+    private final StringDictionary dictionary;
+
+    public StreamingReviewLineParser(ObjectMapper objectMapper, StringDictionary dictionary) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public ParsedReview parse(byte[] data, int offset, int length, String sourceFile) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data, offset, length)) {
+            return parseReview(parser, sourceFile);
+        }
+    }
+
+    private ParsedReview parseReview(JsonParser parser, String sourceFile) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, token, JsonToken.START_OBJECT);
+
+        Review review = new Review();
+        CommentFields comment = null;
+        List<OverallRating> ratings = Collections.emptyList();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "hotelId" -> review.setHotelId(longValue(parser));
+                case "platform" -> review.setPlatform(dictionary.canonical(textValue(parser)));
+                case "hotelName" -> review.setHotelName(dictionary.canonical(textValue(parser)));
+                case "comment" -> comment = readComment(parser, review);
+                case "overallByProviders" -> ratings = readOverallRatings(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (review.getHotelId() == null || comment == null
+                || comment.hotelReviewId == null || review.getProviderId() == null) {
+            return null;
+        }
+
+        review.setReviewId(String.valueOf(comment.hotelReviewId));
+        review.setSourceFile(sourceFile);
+        review.setContentHash(ReviewFingerprint.of(review));
+        for (OverallRating rating : ratings) {
+            rating.setHotelId(review.getHotelId());
+        }
+        return new ParsedReview(review, ratings);
+    }
+
+    private CommentFields readComment(JsonParser parser, Review review) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        CommentFields comment = new CommentFields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "hotelReviewId" -> comment.hotelReviewId = longValue(parser);
+                case "providerId" -> review.setProviderId(longValue(parser));
+                case "rating" -> review.setRating(doubleValue(parser));
+                case "checkInDateMonthAndYear" -> review.setCheckInDate(dictionary.canonical(textValue(parser)));
+                case "reviewTitle" -> review.setReviewTitle(textValue(parser));
+                case "reviewComments" -> review.setReviewComments(textValue(parser));
+                case "reviewDate" -> review.setReviewDate(ReviewDateParser.parse(textValue(parser)));
+                case "translateSource" -> review.setTranslateSource(dictionary.canonical(textValue(parser)));
+                case "translateTarget" -> review.setTranslateTarget(dictionary.canonical(textValue(parser)));
+                case "reviewerInfo" -> readReviewerInfo(parser, review);
+                default -> parser.skipChildren();
+            }
+        }
+        return comment;
+    }
+
+    private void readReviewerInfo(JsonParser parser, Review review) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "countryName" -> review.setReviewerCountry(dictionary.canonical(textValue(parser)));
+                case "displayMemberName" -> review.setReviewerName(textValue(parser));
+                case "reviewGroupName" -> review.setReviewGroupName(dictionary.canonical(textValue(parser)));
+                case "roomTypeName" -> review.setRoomType(dictionary.canonical(textValue(parser)));
+                case "lengthOfStay" -> review.setLengthOfStay(intValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private List<OverallRating> readOverallRatings(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return Collections.emptyList();
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_ARRAY);
+
+        List<OverallRating> ratings = new ArrayList<>(4);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+            OverallRating rating = new OverallRating();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "providerId" -> rating.setProviderId(longValue(parser));
+                    case "provider" -> rating.setProvider(dictionary.canonical(textValue(parser)));
+                    case "overallScore" -> rating.setOverallScore(doubleValue(parser));
+                    case "reviewCount" -> rating.setReviewCount(intValue(parser));
+                    case "grades" -> rating.setGrades(readGrades(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            ratings.add(rating);
+        }
+        return ratings;
+    }
+
+    private Map<String, Double> readGrades(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        Map<String, Double> grades = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = dictionary.canonical(parser.currentName());
+            parser.nextToken();
+            grades.put(name, doubleValue(parser));
+        }
+        return grades;
+    }
+
+    // Scalar readers mirror databind coercion: numbers from strings, text from any scalar, null stays null
+
+    private static String textValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a scalar value but found " + token);
+        }
+        return parser.getText();
+    }
+
+    private static Long longValue(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_NUMBER_FLOAT -> (long) parser.getDoubleValue();
+            case VALUE_STRING -> parser.getText().isBlank() ? null : Long.parseLong(parser.getText().trim());
+            default -> throw new JsonParseException(parser, "Expected a number but found " + parser.currentToken());
+        };
+    }
+
+    private static Integer intValue(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_NUMBER_FLOAT -> (int) parser.getDoubleValue();
+            case VALUE_STRING -> parser.getText().isBlank() ? null : Integer.parseInt(parser.getText().trim());
+            default -> throw new JsonParseException(parser, "Expected a number but found " + parser.currentToken());
+        };
+    }
+
+    private static Double doubleValue(JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_STRING -> parser.getText().isBlank() ? null : Double.parseDouble(parser.getText().trim());
+            default -> throw new JsonParseException(parser, "Expected a number but found " + parser.currentToken());
+        };
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    private static class CommentFields {
+        private Long hotelReviewId;
+    }
+}
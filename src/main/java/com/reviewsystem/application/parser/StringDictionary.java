@@ -0,0 +1,84 @@
+package com.reviewsystem.application.parser;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canonicalises low-cardinality text fields (platform, hotel, country, room type...) so rows buffered
+// for a batch or held by the rating coalescer share one instance per distinct value. Bounded: once
+// full, new values are returned as-is until the next run clears it.
+@Component
+@Slf4j
+public class StringDictionary {
+
+    private final ConcurrentHashMap<String, String> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter overflows;
+    private volatile double hitsAtClear;
+    private volatile double lookupsAtClear;
+
+    public StringDictionary(@Value("${app.processing.dictionary-max-entries:50000}") int maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.overflows = lookups(meterRegistry, "overflow");
+        Gauge.builder("review.dictionary.size", entries, ConcurrentHashMap::size)
+                .description("Distinct values held by the per-run string dictionary")
+                .register(meterRegistry);
+    }
+
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = entries.get(value);
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+        if (entries.size() >= maxEntries) {
+            overflows.increment();
+            return value;
+        }
+        existing = entries.putIfAbsent(value, value);
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+        misses.increment();
+        return value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Called between runs so values from old files don't pin memory or crowd out new ones
+    public void clear() {
+        double hitCount = hits.count();
+        double lookupCount = hitCount + misses.count() + overflows.count();
+        double runLookups = lookupCount - lookupsAtClear;
+        if (runLookups > 0) {
+            log.info("String dictionary: {} distinct values, {}% hit rate over {} lookups",
+                    entries.size(), Math.round((hitCount - hitsAtClear) * 100 / runLookups), (long) runLookups);
+        }
+        hitsAtClear = hitCount;
+        lookupsAtClear = lookupCount;
+        entries.clear();
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("review.dictionary.lookups")
+                .description("String dictionary lookups by outcome; overflow means the dictionary was full")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.service.MappedInput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Cuts a byte stream into blocks of whole '\n'-terminated lines. Input is read straight into the
+// caller's block buffer and lines are returned as offsets into it, so nothing is decoded or copied
+// per line. Bytes read past the block's last line stay where they are, behind a cursor into that
+// buffer, and are copied once to the front of the next block's buffer. Keeps the byte offset of the
+// next unread line so a committed position can be turned back into a ranged GET.
+class ByteLineReader {
+
+    private final InputStream source;
+    private final MappedInput mapped;
+    private ByteBuffer region;
+    // Bytes after the last returned line: rest[restStart, restStart + carried)
+    private byte[] rest = new byte[0];
+    private int restStart;
+    private int carried;
+    private boolean exhausted;
+    private long offset;
+
+    ByteLineReader(InputStream source, long startOffset) {
+        this.source = source;
+        this.mapped = source instanceof MappedInput mappedInput ? mappedInput : null;
+        this.offset = startOffset;
+    }
+
+    // Absolute offset of the first byte after the last line returned
+    long offset() {
+        return offset;
+    }
+
+    // Fills `buffer` (or a larger array, when one line does not fit) with up to maxLines lines;
+    // returns null once the input is exhausted. The previous block's array is read here, so it must
+    // not be written to before this call, other than by passing it back in as `buffer`.
+    LineBlock readBlock(int maxLines, byte[] buffer) throws IOException {
+        byte[] data = buffer.length > carried ? buffer : new byte[carried * 2];
+        // arraycopy handles the overlap when `buffer` is the previous block's array
+        System.arraycopy(rest, restStart, data, 0, carried);
+        int filled = carried;
+        int[] starts = new int[maxLines];
+        int[] ends = new int[maxLines];
+        int count = 0;
+        int lineStart = 0;
+        int scanned = 0;
+
+        while (count < maxLines) {
+            int newline = NewlineScanner.indexOf(data, scanned, filled);
+            if (newline >= 0) {
+                starts[count] = lineStart;
+                ends[count] = newline;
+                count++;
+                lineStart = newline + 1;
+                scanned = lineStart;
+                continue;
+            }
+            scanned = filled;
+            if (filled == data.length) {
+                if (lineStart > 0) {
+                    // The block is full; the partial line moves to the next one
+                    break;
+                }
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            int read = exhausted ? -1 : fill(data, filled);
+            if (read <= 0) {
+                exhausted = true;
+                if (lineStart < filled) {
+                    // Last line without a trailing '\n'
+                    starts[count] = lineStart;
+                    ends[count] = filled;
+                    count++;
+                    lineStart = filled;
+                }
+                break;
+            }
+            filled += read;
+        }
+
+        rest = data;
+        restStart = lineStart;
+        carried = filled - lineStart;
+        if (count == 0) {
+            return null;
+        }
+        offset += lineStart;
+        return new LineBlock(data, starts, ends, count, offset);
+    }
+
+    private int fill(byte[] data, int filled) throws IOException {
+        if (mapped == null) {
+            return source.read(data, filled, data.length - filled);
+        }
+        // Mapped input is copied in bulk from the mapping, with no intermediate read buffer
+        if ((region == null || !region.hasRemaining()) && (region = mapped.nextRegion()) == null) {
+            return -1;
+        }
+        int count = Math.min(region.remaining(), data.length - filled);
+        region.get(data, filled, count);
+        return count;
+    }
+
+    // Line i is data[starts[i], ends[i]), without its '\n'; endOffset is the absolute offset after the block
+    record LineBlock(byte[] data, int[] starts, int[] ends, int lineCount, long endOffset) {
+    }
+}
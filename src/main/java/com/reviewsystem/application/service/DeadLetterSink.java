@@ -0,0 +1,17 @@
+package com.reviewsystem.application.service;
+
+import java.util.List;
+
+// Receives a chunk's rejected lines in one call, from the writer thread of the file being ingested
+public interface DeadLetterSink {
+
+    void write(List<RejectedLine> lines);
+
+    // Called before a file is read from its checkpoint: drops any of its dead letters past the committed
+    // line, left by a chunk whose transaction did not commit. Transactional sinks roll those back themselves.
+    default void discardAfter(String sourceFile, long committedLine) {
+    }
+
+    // Where the given source file's rejected lines end up, for log messages
+    String location(String sourceFile);
+}
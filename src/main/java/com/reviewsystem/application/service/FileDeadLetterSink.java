@@ -0,0 +1,114 @@
+package com.reviewsystem.application.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.infrastructure.service.FileNames;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends rejected lines as JSON lines to <directory>/<SHA-256 of the source key>.rejected.jl; each
+// record carries the source key, and location() names the file for a given key. Appends are not part
+// of the chunk transaction, so a resumed file first truncates the lines its checkpoint does not cover.
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.dead-letter.sink", havingValue = "file")
+public class FileDeadLetterSink implements DeadLetterSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public FileDeadLetterSink(ObjectMapper objectMapper,
+                              @Value("${app.dead-letter.directory:dead-letters}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+    }
+
+    @Override
+    public void write(List<RejectedLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Path target = pathFor(lines.get(0).sourceFile());
+        try {
+            Files.createDirectories(directory);
+            try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+                for (RejectedLine line : lines) {
+                    generator.writeStartObject();
+                    generator.writeStringField("file", line.sourceFile());
+                    generator.writeNumberField("line", line.lineNumber());
+                    generator.writeStringField("reason", line.reason());
+                    generator.writeStringField("raw", line.rawLine());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write dead letters to " + target, e);
+        }
+    }
+
+    @Override
+    public void discardAfter(String sourceFile, long committedLine) {
+        Path target = pathFor(sourceFile);
+        if (!Files.exists(target)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long keep = committedPrefixLength(Channels.newInputStream(channel), committedLine);
+            if (keep < channel.size()) {
+                log.info("Discarding {} bytes of uncommitted dead letters from {}", channel.size() - keep, target);
+                channel.truncate(keep);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to trim dead letters in " + target, e);
+        }
+    }
+
+    // Records are appended in line order, so everything from the first record past the checkpoint, or an
+    // unterminated record from an interrupted append, is uncommitted
+    private long committedPrefixLength(InputStream stream, long committedLine) throws IOException {
+        InputStream in = new BufferedInputStream(stream);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        long kept = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b != '\n') {
+                record.write(b);
+                continue;
+            }
+            if (objectMapper.readTree(record.toByteArray()).path("line").asLong() > committedLine) {
+                break;
+            }
+            kept += record.size() + 1;
+            record.reset();
+        }
+        return kept;
+    }
+
+    @Override
+    public String location(String sourceFile) {
+        return pathFor(sourceFile).toString();
+    }
+
+    private Path pathFor(String sourceFile) {
+        return directory.resolve(FileNames.sha256Hex(sourceFile) + ".rejected.jl");
+    }
+}
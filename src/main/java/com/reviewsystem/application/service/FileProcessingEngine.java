@@ -0,0 +1,240 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.service.S3Service;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class FileProcessingEngine {
+
+    // Largest first keeps one big file from starting last and stretching the run (LPT scheduling)
+    static final Comparator<S3Service.S3FileInfo> LARGEST_FIRST = Comparator.comparingLong(
+            (S3Service.S3FileInfo file) -> file.getSize() == null ? -1L : file.getSize()).reversed();
+
+    private static final long ADMISSION_POLL_MS = 100;
+
+    private final Executor fileProcessingExecutor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger queuedFiles = new AtomicInteger();
+    private final AtomicInteger activeFiles = new AtomicInteger();
+
+    @Value("${app.processing.max-concurrency:5}")
+    private int maxConcurrency;
+
+    public FileProcessingEngine(@Qualifier("fileProcessingExecutor") Executor fileProcessingExecutor,
+                                MeterRegistry meterRegistry) {
+        this.fileProcessingExecutor = fileProcessingExecutor;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("review.files.queued", queuedFiles, AtomicInteger::get)
+                .description("Files admitted to the current run and waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("review.files.active", activeFiles, AtomicInteger::get)
+                .description("Files currently being processed")
+                .register(meterRegistry);
+    }
+
+    public void processFiles(List<S3Service.S3FileInfo> files,
+                             Function<S3Service.S3FileInfo, ReviewProcessingService.ProcessingResult> processor,
+                             Consumer<ReviewProcessingService.ProcessingResult> onResult) {
+        processFiles(List.of(files).iterator(), processor, onResult);
+    }
+
+    // Files arrive in batches (one per listing page) and are scheduled as soon as they are admitted;
+    // workers keep polling until the last batch is in and the queue is drained
+    public void processFiles(Iterator<List<S3Service.S3FileInfo>> batches,
+                             Function<S3Service.S3FileInfo, ReviewProcessingService.ProcessingResult> processor,
+                             Consumer<ReviewProcessingService.ProcessingResult> onResult) {
+        // Every file is admitted to an unbounded queue; the executor only ever sees one task per worker
+        BlockingQueue<S3Service.S3FileInfo> queue = new PriorityBlockingQueue<>(64, LARGEST_FIRST);
+        BlockingQueue<ReviewProcessingService.ProcessingResult> results = new LinkedBlockingQueue<>();
+        AtomicBoolean admissionClosed = new AtomicBoolean();
+        AtomicInteger liveWorkers = new AtomicInteger();
+        int maxWorkers = Math.max(1, maxConcurrency);
+        AtomicLongArray busyNanos = new AtomicLongArray(maxWorkers);
+        long runStart = System.nanoTime();
+        int workers = 0;
+        int admitted = 0;
+        int completed = 0;
+
+        RuntimeException admissionFailure = null;
+        try {
+            while (batches.hasNext()) {
+                List<S3Service.S3FileInfo> batch = batches.next();
+                queue.addAll(batch);
+                queuedFiles.addAndGet(batch.size());
+                admitted += batch.size();
+
+                for (; workers < Math.min(maxWorkers, admitted); workers++) {
+                    int index = workers;
+                    liveWorkers.incrementAndGet();
+                    try {
+                        fileProcessingExecutor.execute(() -> runWorker(index, queue, admissionClosed, processor,
+                                results, busyNanos, liveWorkers));
+                    } catch (RuntimeException e) {
+                        liveWorkers.decrementAndGet();
+                        throw e;
+                    }
+                }
+
+                ReviewProcessingService.ProcessingResult result;
+                while ((result = results.poll()) != null) {
+                    onResult.accept(result);
+                    completed++;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Files already admitted still run to completion before the failure is rethrown
+            admissionFailure = e;
+        } finally {
+            admissionClosed.set(true);
+        }
+
+        for (; completed < admitted; completed++) {
+            onResult.accept(takeNext(results, queue, liveWorkers));
+        }
+
+        long wallNanos = Math.max(1, System.nanoTime() - runStart);
+        for (int worker = 0; worker < workers; worker++) {
+            log.info("File worker {} busy {}ms ({}% of {}ms)", worker,
+                    TimeUnit.NANOSECONDS.toMillis(busyNanos.get(worker)),
+                    busyNanos.get(worker) * 100 / wallNanos, TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        }
+        if (admissionFailure != null) {
+            throw admissionFailure;
+        }
+    }
+
+    public int getQueuedFiles() {
+        return queuedFiles.get();
+    }
+
+    public int getActiveFiles() {
+        return activeFiles.get();
+    }
+
+    private void runWorker(int worker, BlockingQueue<S3Service.S3FileInfo> queue, AtomicBoolean admissionClosed,
+                           Function<S3Service.S3FileInfo, ReviewProcessingService.ProcessingResult> processor,
+                           BlockingQueue<ReviewProcessingService.ProcessingResult> results,
+                           AtomicLongArray busyNanos, AtomicInteger liveWorkers) {
+        Timer busy = Timer.builder("review.files.worker.busy")
+                .description("Time each file worker spends processing files")
+                .tag("worker", String.valueOf(worker))
+                .register(meterRegistry);
+
+        boolean drained = false;
+        try {
+            S3Service.S3FileInfo file;
+            while ((file = nextFile(queue, admissionClosed)) != null) {
+                queuedFiles.decrementAndGet();
+                activeFiles.incrementAndGet();
+                long start = System.nanoTime();
+                ReviewProcessingService.ProcessingResult result;
+                try {
+                    result = process(file, processor);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    busyNanos.addAndGet(worker, elapsed);
+                    busy.record(elapsed, TimeUnit.NANOSECONDS);
+                    activeFiles.decrementAndGet();
+                }
+                // Busy time is recorded before the result is published, so the caller sees it once all results are in
+                results.add(result);
+            }
+            drained = !Thread.currentThread().isInterrupted();
+        } finally {
+            liveWorkers.decrementAndGet();
+            if (!drained) {
+                // Nothing may be left waiting on a worker that is gone: every admitted file gets a result
+                log.error("File worker {} stopped before the queue was drained", worker);
+                failQueued(queue, results, "File worker stopped before processing this file");
+            }
+        }
+    }
+
+    private void failQueued(BlockingQueue<S3Service.S3FileInfo> queue,
+                            BlockingQueue<ReviewProcessingService.ProcessingResult> results, String error) {
+        S3Service.S3FileInfo file;
+        while ((file = queue.poll()) != null) {
+            queuedFiles.decrementAndGet();
+            results.add(failed(file, error));
+        }
+    }
+
+    private static S3Service.S3FileInfo nextFile(BlockingQueue<S3Service.S3FileInfo> queue,
+                                                 AtomicBoolean admissionClosed) {
+        try {
+            while (true) {
+                // Read the flag before polling: once it is set, every admitted file is already queued
+                boolean closed = admissionClosed.get();
+                S3Service.S3FileInfo file = queue.poll(ADMISSION_POLL_MS, TimeUnit.MILLISECONDS);
+                if (file != null || closed) {
+                    return file;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private ReviewProcessingService.ProcessingResult process(
+            S3Service.S3FileInfo file,
+            Function<S3Service.S3FileInfo, ReviewProcessingService.ProcessingResult> processor) {
+        try {
+            return processor.apply(file);
+        } catch (Throwable e) {
+            // Errors included: the worker carries on with the next file rather than leaving it unprocessed
+            log.error("Unexpected failure processing file {}", file.getKey(), e);
+            return failed(file, e.getMessage());
+        }
+    }
+
+    private static ReviewProcessingService.ProcessingResult failed(S3Service.S3FileInfo file, String error) {
+        return ReviewProcessingService.ProcessingResult.builder()
+                .filename(file.getKey())
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    // Once no worker is left, files admitted after the last one stopped are failed here instead
+    private ReviewProcessingService.ProcessingResult takeNext(
+            BlockingQueue<ReviewProcessingService.ProcessingResult> results,
+            BlockingQueue<S3Service.S3FileInfo> queue, AtomicInteger liveWorkers) {
+        try {
+            while (true) {
+                ReviewProcessingService.ProcessingResult result =
+                        results.poll(ADMISSION_POLL_MS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    return result;
+                }
+                if (liveWorkers.get() == 0) {
+                    failQueued(queue, results, "No file worker left to process this file");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for file processing", e);
+        }
+    }
+}
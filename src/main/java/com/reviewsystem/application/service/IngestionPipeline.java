@@ -0,0 +1,283 @@
+package com.reviewsystem.application.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.reviewsystem.application.parser.ParsedReview;
+import com.reviewsystem.application.parser.ReviewLineParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Splits one file into reader -> parser pool -> writer stages connected by a bounded queue.
+// The queue holds parse futures in file order, so the writer sees blocks in sequence while
+// parsing runs ahead in parallel; a full queue stalls the reader.
+@Component
+@Slf4j
+public class IngestionPipeline {
+
+    private static final ParsedBlock END = new ParsedBlock(List.of(), List.of(), 0, 0, 0);
+    private static final int BLOCK_BYTES = 1024 * 1024;
+
+    private final ReviewLineParser reviewLineParser;
+    private final Executor lineReaderExecutor;
+    private final Executor lineParserExecutor;
+
+    @Value("${app.pipeline.block-lines:500}")
+    private int blockLines;
+
+    @Value("${app.pipeline.queue-depth:16}")
+    private int queueDepth;
+
+    public IngestionPipeline(ReviewLineParser reviewLineParser,
+                             @Qualifier("lineReaderExecutor") Executor lineReaderExecutor,
+                             @Qualifier("lineParserExecutor") Executor lineParserExecutor) {
+        this.reviewLineParser = reviewLineParser;
+        this.lineReaderExecutor = lineReaderExecutor;
+        this.lineParserExecutor = lineParserExecutor;
+    }
+
+    public Run start(InputStream source, String filename) {
+        return start(source, filename, 0, 0);
+    }
+
+    // Resumes a file whose first `linesBefore` lines, ending at byte `startOffset`, are already committed
+    public Run start(InputStream source, String filename, long startOffset, long linesBefore) {
+        Run run = new Run(new ByteLineReader(source, startOffset), linesBefore + 1, filename,
+                new ArrayBlockingQueue<>(Math.max(1, queueDepth)));
+        run.readerTask = CompletableFuture.runAsync(run::readBlocks, lineReaderExecutor);
+        return run;
+    }
+
+    private ParsedBlock parseBlock(ByteLineReader.LineBlock lines, long firstLineNumber, String filename,
+                                   StageTimes times) {
+        long started = System.nanoTime();
+        List<ParsedReview> records = new ArrayList<>(lines.lineCount());
+        List<RejectedLine> rejected = new ArrayList<>(0);
+        byte[] data = lines.data();
+        long lineNumber = firstLineNumber;
+
+        // Bad lines travel with the block to the writer, which batches them to the dead-letter sink
+        for (int i = 0; i < lines.lineCount(); i++, lineNumber++) {
+            int start = lines.starts()[i];
+            int end = lines.ends()[i];
+            int from = start;
+            int to = end;
+            // Same as String.trim(): UTF-8 bytes up to ' ' are only ASCII control characters and space
+            while (from < to && (data[from] & 0xFF) <= ' ') {
+                from++;
+            }
+            while (to > from && (data[to - 1] & 0xFF) <= ' ') {
+                to--;
+            }
+            if (from == to) {
+                continue;
+            }
+            try {
+                ParsedReview parsed = reviewLineParser.parse(data, from, to - from, filename);
+                if (parsed != null) {
+                    records.add(parsed);
+                } else {
+                    rejected.add(new RejectedLine(filename, lineNumber, RejectedLine.REASON_INVALID,
+                            rawLine(data, start, end)));
+                }
+            } catch (Exception e) {
+                rejected.add(new RejectedLine(filename, lineNumber, "unparsable: " + describe(e),
+                        rawLine(data, start, end)));
+            }
+        }
+
+        times.parseNanos.addAndGet(System.nanoTime() - started);
+        return new ParsedBlock(records, rejected, lines.lineCount(), lines.endOffset(), lineNumber - 1);
+    }
+
+    // Only rejected lines are ever decoded to a String
+    private static String rawLine(byte[] data, int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static String describe(Exception e) {
+        // Jackson's full message repeats the source line, which the dead-letter record already holds
+        if (e instanceof JsonProcessingException jsonException) {
+            JsonLocation location = jsonException.getLocation();
+            return jsonException.getOriginalMessage()
+                    + (location != null ? " at column " + location.getColumnNr() : "");
+        }
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    public class Run implements AutoCloseable {
+
+        private final ByteLineReader source;
+        private final long firstLineNumber;
+        private final String filename;
+        private final BlockingQueue<Future<ParsedBlock>> blocks;
+        private final Queue<byte[]> spareBuffers = new ConcurrentLinkedQueue<>();
+        private final StageTimes times = new StageTimes();
+        private final long startedAt = System.nanoTime();
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<Void> readerTask;
+        private boolean finished;
+        private long blocksWritten;
+
+        private Run(ByteLineReader source, long firstLineNumber, String filename,
+                    BlockingQueue<Future<ParsedBlock>> blocks) {
+            this.source = source;
+            this.firstLineNumber = firstLineNumber;
+            this.filename = filename;
+            this.blocks = blocks;
+        }
+
+        // Writer stage: returns the next block in file order, or null once the file is exhausted
+        public ParsedBlock next() {
+            if (finished) {
+                return null;
+            }
+            long waitStarted = System.nanoTime();
+            try {
+                ParsedBlock block = blocks.take().get();
+                if (block == END) {
+                    finished = true;
+                    return null;
+                }
+                blocksWritten++;
+                return block;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parsed blocks of " + filename, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Pipeline stage failed for " + filename, cause);
+            } finally {
+                times.writerWaitNanos.addAndGet(System.nanoTime() - waitStarted);
+            }
+        }
+
+        public PipelineStats stats() {
+            long wallNanos = Math.max(1, System.nanoTime() - startedAt);
+            return PipelineStats.builder()
+                    .blocks(blocksWritten)
+                    .readerUtilisation(times.readNanos.get() / (double) wallNanos)
+                    .parserUtilisation(times.parseNanos.get() / (double) wallNanos)
+                    .writerUtilisation((wallNanos - times.writerWaitNanos.get()) / (double) wallNanos)
+                    .wallMillis(TimeUnit.NANOSECONDS.toMillis(wallNanos))
+                    .build();
+        }
+
+        // Stops the reader and waits for it, so the caller can safely close the source afterwards
+        @Override
+        public void close() {
+            if (!finished) {
+                cancelled = true;
+                Future<ParsedBlock> pending;
+                while ((pending = blocks.poll()) != null) {
+                    pending.cancel(false);
+                }
+            }
+            try {
+                readerTask.get(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.debug("Reader for {} ended abnormally: {}", filename, e.toString());
+            }
+        }
+
+        // Reader stage: cuts the stream into line blocks and hands each to the parser pool. Block buffers
+        // go back to `spareBuffers` once parsed, so a steady run reuses the same few arrays.
+        private void readBlocks() {
+            long lineNumber = firstLineNumber;
+            try {
+                while (!cancelled) {
+                    long started = System.nanoTime();
+                    byte[] buffer = spareBuffers.poll();
+                    ByteLineReader.LineBlock lines = source.readBlock(blockLines,
+                            buffer != null ? buffer : new byte[BLOCK_BYTES]);
+                    times.readNanos.addAndGet(System.nanoTime() - started);
+
+                    if (lines == null) {
+                        break;
+                    }
+                    long blockFirstLine = lineNumber;
+                    lineNumber += lines.lineCount();
+                    enqueue(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return parseBlock(lines, blockFirstLine, filename, times);
+                        } finally {
+                            if (lines.data().length == BLOCK_BYTES) {
+                                spareBuffers.offer(lines.data());
+                            }
+                        }
+                    }, lineParserExecutor));
+                }
+                enqueue(CompletableFuture.completedFuture(END));
+            } catch (IOException e) {
+                enqueue(CompletableFuture.failedFuture(
+                        new IllegalStateException("Failed to read file " + filename, e)));
+            } catch (RuntimeException e) {
+                enqueue(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        private void enqueue(Future<ParsedBlock> block) {
+            try {
+                while (!cancelled) {
+                    if (blocks.offer(block, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+                block.cancel(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+    }
+
+    @lombok.Value
+    public static class ParsedBlock {
+        List<ParsedReview> records;
+        List<RejectedLine> rejected;
+        int lineCount;
+        // Byte offset just past the block and the number of its last line, for checkpoints
+        long endOffset;
+        long endLine;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class PipelineStats {
+        private long blocks;
+        private long wallMillis;
+        // Busy time divided by wall time; the parser figure can exceed 1.0 when several workers run at once
+        private double readerUtilisation;
+        private double parserUtilisation;
+        private double writerUtilisation;
+    }
+
+    private static class StageTimes {
+        private final AtomicLong readNanos = new AtomicLong();
+        private final AtomicLong parseNanos = new AtomicLong();
+        private final AtomicLong writerWaitNanos = new AtomicLong();
+    }
+}
@@ -0,0 +1,40 @@
+package com.reviewsystem.application.service;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Follows a listing in key order and works out the watermark without keeping every listed key:
+// only files not yet completed are held, each with the key listed just before it.
+class ListingProgress {
+
+    private final NavigableMap<String, String> pending = new TreeMap<>();
+    private String lastListed;
+    private int listedCount;
+    private int pendingCount;
+
+    void listed(String key, boolean completed) {
+        if (!completed) {
+            pending.put(key, lastListed);
+            pendingCount++;
+        }
+        lastListed = key;
+        listedCount++;
+    }
+
+    void completed(String key) {
+        pending.remove(key);
+    }
+
+    // Greatest listed key with every listed key up to it completed, or null if there is none
+    String watermark() {
+        return pending.isEmpty() ? lastListed : pending.firstEntry().getValue();
+    }
+
+    int getListedCount() {
+        return listedCount;
+    }
+
+    int getNewCount() {
+        return pendingCount;
+    }
+}
@@ -0,0 +1,66 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.ListingWatermark;
+import com.reviewsystem.infrastructure.repository.ListingWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Lets a run list only keys after the last fully processed one. The listing starts from the
+// watermark as it stood one lookback window ago, so a date-named file that lands late, below
+// the current watermark, is still picked up as long as it arrives within the window.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ListingWatermarkTracker {
+
+    private final ListingWatermarkRepository watermarkRepository;
+
+    @Value("${app.listing.incremental:true}")
+    private boolean incremental;
+
+    @Value("${app.listing.lookback-hours:48}")
+    private long lookbackHours;
+
+    // Null means a full listing: tracking is off, or no watermark is old enough yet
+    public String startAfter(String prefix) {
+        if (!incremental) {
+            return null;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(lookbackHours);
+        return watermarkRepository.findFirstByPrefixAndRecordedAtLessThanEqualOrderByRecordedAtDesc(prefix, cutoff)
+                .map(ListingWatermark::getWatermarkKey)
+                .orElse(null);
+    }
+
+    // Records a new watermark when it moves forward; null (nothing completed in order) is ignored
+    @Transactional
+    public void advance(String prefix, String watermark) {
+        if (!incremental || watermark == null) {
+            return;
+        }
+
+        String current = watermarkRepository.findFirstByPrefixOrderByRecordedAtDesc(prefix)
+                .map(ListingWatermark::getWatermarkKey)
+                .orElse(null);
+        if (current != null && watermark.compareTo(current) <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        watermarkRepository.save(ListingWatermark.builder()
+                .prefix(prefix)
+                .watermarkKey(watermark)
+                .recordedAt(now)
+                .build());
+        // Keep the newest row older than the window; startAfter() never reads anything before it
+        watermarkRepository.findFirstByPrefixAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+                        prefix, now.minusHours(lookbackHours))
+                .ifPresent(oldest -> watermarkRepository.deleteOlderThan(prefix, oldest.getRecordedAt()));
+        log.info("Listing watermark for {} advanced from {} to {}", prefix, current, watermark);
+    }
+}
@@ -0,0 +1,37 @@
+package com.reviewsystem.application.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+// Finds '\n' eight bytes at a time (SWAR): XOR turns newline bytes into zero bytes, and the classic
+// has-zero-byte test flags them in one word. Borrows only carry upwards, so the lowest flagged byte,
+// the first in memory on a little-endian read, is always a real match.
+final class NewlineScanner {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private NewlineScanner() {
+    }
+
+    // Index of the first '\n' in data[from, to), or -1
+    static int indexOf(byte[] data, int from, int to) {
+        int index = from;
+        for (; index + Long.BYTES <= to; index += Long.BYTES) {
+            long word = (long) LONGS.get(data, index) ^ NEWLINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                return index + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; index < to; index++) {
+            if (data[index] == '\n') {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
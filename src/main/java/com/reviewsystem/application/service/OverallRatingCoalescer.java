@@ -0,0 +1,104 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Every review line repeats its hotel's overallByProviders block, so ratings are collected here
+// across files and written once per (hotelId, providerId) when the run ends or the interval elapses.
+// What was written is remembered only until the run ends, so it stays bounded by one run's hotels.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OverallRatingCoalescer {
+
+    private final ReviewBulkRepository reviewBulkRepository;
+
+    private final Map<RatingKey, OverallRating> pending = new ConcurrentHashMap<>();
+    private final Map<RatingKey, RatingState> lastWritten = new ConcurrentHashMap<>();
+    private final AtomicLong offered = new AtomicLong();
+
+    public void offer(OverallRating rating) {
+        pending.put(new RatingKey(rating.getHotelId(), rating.getProviderId()), rating);
+        offered.incrementAndGet();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratings.flush-interval-ms:60000}",
+            initialDelayString = "${app.ratings.flush-interval-ms:60000}")
+    public void scheduledFlush() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    // Flushes what is pending and forgets what was written; ratings that fail to flush stay pending
+    public synchronized int endRun() {
+        try {
+            return flush();
+        } finally {
+            lastWritten.clear();
+        }
+    }
+
+    public synchronized int flush() {
+        List<OverallRating> changed = new ArrayList<>(pending.size());
+        List<RatingKey> changedKeys = new ArrayList<>(pending.size());
+        int unchanged = 0;
+
+        for (RatingKey key : pending.keySet()) {
+            // remove() hands back whatever is latest; a rating offered after this point stays pending
+            OverallRating rating = pending.remove(key);
+            if (rating == null) {
+                continue;
+            }
+            if (RatingState.of(rating).equals(lastWritten.get(key))) {
+                unchanged++;
+                continue;
+            }
+            changed.add(rating);
+            changedKeys.add(key);
+        }
+
+        int written = 0;
+        if (!changed.isEmpty()) {
+            try {
+                written = reviewBulkRepository.upsertOverallRatings(changed);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < changed.size(); i++) {
+                    pending.putIfAbsent(changedKeys.get(i), changed.get(i));
+                }
+                throw e;
+            }
+            for (int i = 0; i < changed.size(); i++) {
+                lastWritten.put(changedKeys.get(i), RatingState.of(changed.get(i)));
+            }
+        }
+
+        log.info("Flushed overall ratings: {} offered since last flush, {} distinct, {} unchanged skipped, {} rows updated",
+                offered.getAndSet(0), changed.size() + unchanged, unchanged, written);
+        return written;
+    }
+
+    private record RatingKey(Long hotelId, Long providerId) {
+    }
+
+    private record RatingState(Double overallScore, Integer reviewCount, Map<String, Double> grades) {
+
+        private static RatingState of(OverallRating rating) {
+            return new RatingState(rating.getOverallScore(), rating.getReviewCount(), rating.getGrades());
+        }
+    }
+}
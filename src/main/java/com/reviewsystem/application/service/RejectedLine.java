@@ -0,0 +1,7 @@
+package com.reviewsystem.application.service;
+
+// A source line that produced no review, kept for the dead-letter sink
+public record RejectedLine(String sourceFile, long lineNumber, String reason, String rawLine) {
+
+    public static final String REASON_INVALID = "invalid: missing hotelId, comment.hotelReviewId or providerId";
+}
@@ -0,0 +1,69 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Buffers rows for a single file and writes them as multi-row upserts
+public class ReviewBatchWriter implements ReviewWriter {
+
+    private final ReviewBulkRepository reviewBulkRepository;
+    private final int batchSize;
+
+    // A multi-row upsert cannot touch the same key twice, so later lines replace earlier ones
+    private final Map<ReviewKey, Review> reviews;
+    private UpsertCounts counts = UpsertCounts.NONE;
+    private int rowsOffered;
+    private int rowsFlushed;
+
+    public ReviewBatchWriter(ReviewBulkRepository reviewBulkRepository, int batchSize) {
+        this.reviewBulkRepository = reviewBulkRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.reviews = new LinkedHashMap<>(this.batchSize * 2);
+    }
+
+    @Override
+    public void write(Review review) {
+        reviews.put(new ReviewKey(review.getReviewId(), review.getProviderId()), review);
+        rowsOffered++;
+        if (reviews.size() >= batchSize) {
+            flushReviews();
+        }
+    }
+
+    @Override
+    public void flush() {
+        flushReviews();
+    }
+
+    @Override
+    public UpsertCounts getCounts() {
+        return counts;
+    }
+
+    @Override
+    public int getRowsSkipped() {
+        return rowsFlushed - counts.written();
+    }
+
+    @Override
+    public void close() {
+        reviews.clear();
+    }
+
+    private void flushReviews() {
+        if (reviews.isEmpty()) {
+            return;
+        }
+        counts = counts.plus(reviewBulkRepository.upsertReviews(new ArrayList<>(reviews.values())));
+        rowsFlushed = rowsOffered;
+        reviews.clear();
+    }
+
+    private record ReviewKey(String reviewId, Long providerId) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.ReviewCopyRepository;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+
+// Streams a file's rows through PostgreSQL COPY into a staging table and merges them on flush
+public class ReviewCopyWriter implements ReviewWriter {
+
+    private final ReviewCopyRepository.StagingLoad load;
+    private int rowsStaged;
+    private int rowsMerged;
+    private UpsertCounts counts = UpsertCounts.NONE;
+
+    public ReviewCopyWriter(ReviewCopyRepository.StagingLoad load) {
+        this.load = load;
+    }
+
+    @Override
+    public void write(Review review) {
+        load.appendReview(review);
+        rowsStaged++;
+    }
+
+    @Override
+    public void flush() {
+        counts = counts.plus(load.merge());
+        rowsMerged += rowsStaged;
+        rowsStaged = 0;
+    }
+
+    @Override
+    public UpsertCounts getCounts() {
+        return counts;
+    }
+
+    @Override
+    public int getRowsSkipped() {
+        return rowsMerged - counts.written();
+    }
+
+    @Override
+    public void close() {
+        load.close();
+    }
+}
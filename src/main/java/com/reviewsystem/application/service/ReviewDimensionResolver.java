@@ -0,0 +1,54 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.ReviewDimensionRepository;
+import com.reviewsystem.infrastructure.repository.ReviewDimensionRepository.Attribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps hotel and reviewer attributes to dimension keys. Called by the file workers before each chunk
+// transaction opens, so the database is only reached on a cache miss and never from inside a chunk.
+@Component
+@RequiredArgsConstructor
+public class ReviewDimensionResolver {
+
+    private final ReviewDimensionRepository dimensionRepository;
+    private final Map<String, Integer> countries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> roomTypes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> reviewGroups = new ConcurrentHashMap<>();
+    private final Map<Long, HotelState> hotels = new ConcurrentHashMap<>();
+
+    public void resolve(Review review) {
+        resolveHotel(review);
+        review.setReviewerCountryId(key(countries, Attribute.COUNTRY, review.getReviewerCountry()));
+        review.setRoomTypeId(key(roomTypes, Attribute.ROOM_TYPE, review.getRoomType()));
+        review.setReviewGroupId(key(reviewGroups, Attribute.REVIEW_GROUP, review.getReviewGroupName()));
+    }
+
+    private Integer key(Map<String, Integer> cache, Attribute attribute, String name) {
+        if (name == null) {
+            return null;
+        }
+        Integer id = cache.get(name);
+        if (id == null) {
+            id = dimensionRepository.resolve(attribute, name);
+            cache.putIfAbsent(name, id);
+        }
+        return id;
+    }
+
+    // Hotel names can change between dumps; the latest one seen wins
+    private void resolveHotel(Review review) {
+        HotelState state = new HotelState(review.getPlatform(), review.getHotelName());
+        if (!state.equals(hotels.get(review.getHotelId()))) {
+            dimensionRepository.upsertHotel(review.getHotelId(), state.platform(), state.hotelName());
+            hotels.put(review.getHotelId(), state);
+        }
+    }
+
+    private record HotelState(String platform, String hotelName) {
+    }
+}
@@ -1,131 +1,194 @@
 package com.reviewsystem.application.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.reviewsystem.domain.dto.ReviewJsonDto;
+import com.reviewsystem.application.parser.ParsedReview;
+import com.reviewsystem.application.parser.StringDictionary;
 import com.reviewsystem.domain.model.OverallRating;
 import com.reviewsystem.domain.model.ProcessedFile;
-import com.reviewsystem.domain.model.Review;
-import com.reviewsystem.infrastructure.repository.OverallRatingRepository;
 import com.reviewsystem.infrastructure.repository.ProcessedFileRepository;
-import com.reviewsystem.infrastructure.repository.ReviewRepository;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+import com.reviewsystem.infrastructure.service.ReviewSource;
 import com.reviewsystem.infrastructure.service.S3Service;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewProcessingService {
 
-    private final S3Service s3Service;
-    private final ReviewRepository reviewRepository;
-    private final OverallRatingRepository overallRatingRepository;
+    private final ReviewSource reviewSource;
+    private final ReviewWriterFactory reviewWriterFactory;
     private final ProcessedFileRepository processedFileRepository;
-    private final ObjectMapper objectMapper;
+    private final IngestionPipeline ingestionPipeline;
+    private final ReviewDimensionResolver dimensionResolver;
+    private final FileProcessingEngine fileProcessingEngine;
+    private final OverallRatingCoalescer overallRatingCoalescer;
+    private final StringDictionary stringDictionary;
+    private final ListingWatermarkTracker listingWatermarkTracker;
+    private final DeadLetterSink deadLetterSink;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    @Value("${app.processing.batch-size:100}")
-    private int batchSize;
+    @Value("${app.processing.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.dead-letter.log-sample:5}")
+    private int rejectedLogSample;
+
+    @Value("${app.dead-letter.log-interval-ms:10000}")
+    private long rejectedLogIntervalMs;
+
+    // Shared across files so a run full of bad input still logs at most one rejected line per interval
+    private final AtomicLong nextRejectedLogAt = new AtomicLong();
 
     public void processAllFiles() {
         log.info("Starting review processing...");
         long startTime = System.currentTimeMillis();
         
-        List<S3Service.S3FileInfo> files = s3Service.listJsonlFiles();
-        List<S3Service.S3FileInfo> newFiles = filterNewFiles(files);
-        
-        log.info("Processing {} new files out of {} total files", newFiles.size(), files.size());
+        String prefix = reviewSource.getPrefix();
+        String startAfter = listingWatermarkTracker.startAfter(prefix);
+        Set<String> completedKeys = loadCompletedFilenames(reviewSource.getCommonPrefix(), startAfter);
+        ListingProgress listing = new ListingProgress();
         
         AtomicInteger processedFiles = new AtomicInteger(0);
         AtomicInteger totalRecords = new AtomicInteger(0);
+        AtomicInteger totalInserted = new AtomicInteger(0);
+        AtomicInteger totalUpdated = new AtomicInteger(0);
+        AtomicInteger totalSkipped = new AtomicInteger(0);
         
-        List<CompletableFuture<ProcessingResult>> futures = newFiles.stream()
-                .map(file -> processFileAsync(file)
-                        .thenApply(result -> {
-                            int completed = processedFiles.incrementAndGet();
-                            totalRecords.addAndGet(result.getRecordsProcessed());
-                            log.info("Progress: {}/{} files completed", completed, newFiles.size());
-                            return result;
-                        }))
-                .toList();
-
-        // Wait for all files to complete
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        // Each listing page is filtered and scheduled as it arrives, so work starts after the first page
+        // rather than the whole prefix. Pages are pulled and results delivered on this thread only.
+        try (Stream<List<S3Service.S3FileInfo>> pages = reviewSource.listPages(startAfter)) {
+            Iterator<List<S3Service.S3FileInfo>> newFiles = pages
+                    .map(page -> {
+                        List<S3Service.S3FileInfo> admitted = admitNewFiles(page, completedKeys, listing);
+                        reviewSource.prefetch(admitted);
+                        return admitted;
+                    })
+                    .iterator();
+            fileProcessingEngine.processFiles(newFiles, this::processFile, result -> {
+                int completed = processedFiles.incrementAndGet();
+                totalRecords.addAndGet(result.getRecordsProcessed());
+                totalInserted.addAndGet(result.getRowsInserted());
+                totalUpdated.addAndGet(result.getRowsUpdated());
+                totalSkipped.addAndGet(result.getRowsSkipped());
+                if (result.isSuccess()) {
+                    listing.completed(result.getFilename());
+                }
+                log.info("Progress: {}/{} files completed ({} listed so far)",
+                        completed, listing.getNewCount(), listing.getListedCount());
+            });
+        } catch (RuntimeException | Error e) {
+            endRatingsQuietly();
+            throw e;
+        } finally {
+            reviewSource.discardPrefetched();
+            stringDictionary.clear();
+        }
+        listingWatermarkTracker.advance(prefix, listing.watermark());
+        overallRatingCoalescer.endRun();
         
         long duration = System.currentTimeMillis() - startTime;
-        log.info("Processing completed. Processed {} files, {} records in {}ms", 
-                processedFiles.get(), totalRecords.get(), duration);
+        log.info("Processing completed. Processed {} new files out of {} listed, {} records in {}ms; "
+                        + "reviews inserted {}, updated {}, skipped unchanged {}",
+                processedFiles.get(), listing.getListedCount(), totalRecords.get(), duration,
+                totalInserted.get(), totalUpdated.get(), totalSkipped.get());
     }
 
-    @Async("fileProcessingExecutor")
-    public CompletableFuture<ProcessingResult> processFileAsync(S3Service.S3FileInfo fileInfo) {
-        return CompletableFuture.completedFuture(processFile(fileInfo));
+    // Ratings from a failed run are still written, without hiding the failure that ended it
+    private void endRatingsQuietly() {
+        try {
+            overallRatingCoalescer.endRun();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush overall ratings after a failed run; they stay pending", e);
+        }
     }
 
-    @Transactional
     public ProcessingResult processFile(S3Service.S3FileInfo fileInfo) {
         long startTime = System.currentTimeMillis();
-        int recordsProcessed = 0;
-        int lineNumber = 0;
+        FileProgress progress = new FileProgress();
         
         log.info("Processing file: {}", fileInfo.getKey());
         
-        try (BufferedReader reader = s3Service.downloadFile(fileInfo.getKey())) {
-            String line;
+        try (ReviewWriter reviewWriter = reviewWriterFactory.create();
+             InputStream source = reviewSource.open(fileInfo, resumePosition(fileInfo, progress));
+             IngestionPipeline.Run pipeline = ingestionPipeline.start(
+                     source, fileInfo.getKey(), progress.committedOffset, progress.committedLine)) {
             
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                line = line.trim();
-                
-                if (line.isEmpty()) {
-                    continue;
-                }
-                
-                try {
-                    ReviewJsonDto reviewDto = objectMapper.readValue(line, ReviewJsonDto.class);
-                    
-                    if (isValidReview(reviewDto)) {
-                        processReviewRecord(reviewDto, fileInfo.getKey());
-                        recordsProcessed++;
-                    } else {
-                        log.warn("Invalid review data at line {} in file {}", lineNumber, fileInfo.getKey());
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("Failed to parse line {} in file {}: {}", lineNumber, fileInfo.getKey(), e.getMessage());
-                }
+            // Each chunk commits with its checkpoint, so a failure only rolls back the chunk in flight
+            // and a restart resumes after the last committed chunk. The chunk is gathered before its
+            // transaction opens, so a worker holds no connection while it waits on the pipeline.
+            boolean moreBlocks = true;
+            while (moreBlocks) {
+                List<IngestionPipeline.ParsedBlock> chunk = new ArrayList<>();
+                moreBlocks = readChunk(pipeline, chunk, progress);
+                transactionTemplate.executeWithoutResult(status -> writeChunk(chunk, reviewWriter, progress));
+                progress.recordsProcessed += progress.chunkRecords;
+                progress.failedLines += progress.chunkFailed;
+                progress.committedOffset = progress.chunkEndOffset;
+                progress.committedLine = progress.chunkEndLine;
+                progress.committed = reviewWriter.getCounts();
+                progress.skipped = reviewWriter.getRowsSkipped();
             }
             
             // Mark file as processed
             long duration = System.currentTimeMillis() - startTime;
-            markFileAsProcessed(fileInfo.getKey(), recordsProcessed, duration);
+            transactionTemplate.executeWithoutResult(status -> processedFileRepository.markCompleted(
+                    progress.checkpointId, progress.recordsBefore + progress.recordsProcessed,
+                    progress.failedBefore + progress.failedLines, duration, LocalDateTime.now()));
             
-            log.info("Successfully processed file {}: {} records in {}ms", 
-                    fileInfo.getKey(), recordsProcessed, duration);
+            if (progress.failedLines > 0) {
+                log.warn("File {} had {} rejected lines, written to {}",
+                        fileInfo.getKey(), progress.failedLines, deadLetterSink.location(fileInfo.getKey()));
+            }
+            
+            IngestionPipeline.PipelineStats stats = pipeline.stats();
+            log.info("Successfully processed file {}: {} records in {}ms ({} records/s), "
+                            + "{} inserted, {} updated, {} unchanged; busy reader {}%, parsers {}%, writer {}%",
+                    fileInfo.getKey(), progress.recordsProcessed, duration,
+                    duration > 0 ? progress.recordsProcessed * 1000L / duration : progress.recordsProcessed,
+                    progress.committed.inserted(), progress.committed.updated(), progress.skipped,
+                    Math.round(stats.getReaderUtilisation() * 100),
+                    Math.round(stats.getParserUtilisation() * 100),
+                    Math.round(stats.getWriterUtilisation() * 100));
             
             return ProcessingResult.builder()
                     .filename(fileInfo.getKey())
-                    .recordsProcessed(recordsProcessed)
+                    .recordsProcessed(progress.recordsProcessed)
+                    .rowsInserted(progress.committed.inserted())
+                    .rowsUpdated(progress.committed.updated())
+                    .rowsSkipped(progress.skipped)
+                    .failedLines(progress.failedLines)
                     .processingTime(duration)
                     .success(true)
                     .build();
                     
         } catch (Exception e) {
-            log.error("Failed to process file {}", fileInfo.getKey(), e);
+            log.error("Failed to process file {} after {} committed records", 
+                    fileInfo.getKey(), progress.recordsProcessed, e);
             return ProcessingResult.builder()
                     .filename(fileInfo.getKey())
-                    .recordsProcessed(recordsProcessed)
+                    .recordsProcessed(progress.recordsProcessed)
+                    .rowsInserted(progress.committed.inserted())
+                    .rowsUpdated(progress.committed.updated())
+                    .rowsSkipped(progress.skipped)
+                    .failedLines(progress.failedLines)
                     .processingTime(System.currentTimeMillis() - startTime)
                     .success(false)
                     .error(e.getMessage())
@@ -133,119 +196,160 @@ public class ReviewProcessingService {
         }
     }
 
-    private void processReviewRecord(ReviewJsonDto reviewDto, String sourceFile) {
-        // Process main review
-        Review review = transformToReview(reviewDto, sourceFile);
-        saveOrUpdateReview(review);
+    // Dimension keys are resolved here, outside the chunk transaction: get-or-create statements then
+    // commit on their own, and concurrent workers never wait on each other's uncommitted dimension rows.
+    // Rejected lines count toward the chunk size, so a run of bad lines is held no longer than good ones.
+    private boolean readChunk(IngestionPipeline.Run pipeline, List<IngestionPipeline.ParsedBlock> chunk,
+                              FileProgress progress) {
+        progress.chunkRecords = 0;
+        progress.chunkEndOffset = progress.committedOffset;
+        progress.chunkEndLine = progress.committedLine;
+        int chunkLines = 0;
         
-        // Process overall ratings
-        if (reviewDto.getOverallByProviders() != null) {
-            for (ReviewJsonDto.OverallProviderDto overallDto : reviewDto.getOverallByProviders()) {
-                OverallRating rating = transformToOverallRating(overallDto, reviewDto.getHotelId());
-                saveOrUpdateOverallRating(rating);
+        while (chunkLines < chunkSize) {
+            IngestionPipeline.ParsedBlock block = pipeline.next();
+            if (block == null) {
+                return false;
+            }
+            for (ParsedReview parsed : block.getRecords()) {
+                dimensionResolver.resolve(parsed.getReview());
             }
+            chunk.add(block);
+            progress.chunkRecords += block.getRecords().size();
+            chunkLines += block.getRecords().size() + block.getRejected().size();
+            progress.chunkEndOffset = block.getEndOffset();
+            progress.chunkEndLine = block.getEndLine();
         }
+        return true;
     }
 
-    private Review transformToReview(ReviewJsonDto dto, String sourceFile) {
-        ReviewJsonDto.CommentDto comment = dto.getComment();
-        ReviewJsonDto.ReviewerInfoDto reviewerInfo = comment.getReviewerInfo();
+    private void writeChunk(List<IngestionPipeline.ParsedBlock> chunk, ReviewWriter reviewWriter,
+                            FileProgress progress) {
+        progress.chunkFailed = 0;
+        List<RejectedLine> rejected = new ArrayList<>(0);
         
-        LocalDateTime reviewDate = null;
-        if (comment.getReviewDate() != null) {
-            try {
-                reviewDate = LocalDateTime.parse(comment.getReviewDate(), 
-                    DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            } catch (Exception e) {
-                log.warn("Failed to parse review date: {}", comment.getReviewDate());
+        for (IngestionPipeline.ParsedBlock block : chunk) {
+            for (ParsedReview parsed : block.getRecords()) {
+                reviewWriter.write(parsed.getReview());
+                for (OverallRating rating : parsed.getOverallRatings()) {
+                    overallRatingCoalescer.offer(rating);
+                }
+            }
+            for (RejectedLine line : block.getRejected()) {
+                logRejected(line, progress.failedLines + rejected.size());
+                rejected.add(line);
             }
         }
         
-        return Review.builder()
-                .hotelId(dto.getHotelId())
-                .platform(dto.getPlatform())
-                .hotelName(dto.getHotelName())
-                .reviewId(String.valueOf(comment.getHotelReviewId()))
-                .providerId(comment.getProviderId())
-                .rating(comment.getRating())
-                .reviewTitle(comment.getReviewTitle())
-                .reviewComments(comment.getReviewComments())
-                .reviewDate(reviewDate)
-                .checkInDate(comment.getCheckInDateMonthAndYear())
-                .reviewerCountry(reviewerInfo != null ? reviewerInfo.getCountryName() : null)
-                .reviewerName(reviewerInfo != null ? reviewerInfo.getDisplayMemberName() : null)
-                .roomType(reviewerInfo != null ? reviewerInfo.getRoomTypeName() : null)
-                .lengthOfStay(reviewerInfo != null ? reviewerInfo.getLengthOfStay() : null)
-                .reviewGroupName(reviewerInfo != null ? reviewerInfo.getReviewGroupName() : null)
-                .translateSource(comment.getTranslateSource())
-                .translateTarget(comment.getTranslateTarget())
-                .sourceFile(sourceFile)
-                .build();
-    }
-
-    private OverallRating transformToOverallRating(ReviewJsonDto.OverallProviderDto dto, Long hotelId) {
-        return OverallRating.builder()
-                .hotelId(hotelId)
-                .providerId(dto.getProviderId())
-                .provider(dto.getProvider())
-                .overallScore(dto.getOverallScore())
-                .reviewCount(dto.getReviewCount())
-                .grades(dto.getGrades())
-                .build();
+        reviewWriter.flush();
+        // A table sink commits dead letters with the chunk; a file sink's appends are trimmed back to the
+        // checkpoint when the file is resumed, so neither loses nor repeats them
+        if (!rejected.isEmpty()) {
+            deadLetterSink.write(rejected);
+            progress.chunkFailed = rejected.size();
+        }
+        if (progress.chunkEndLine > progress.committedLine) {
+            processedFileRepository.updateCheckpoint(progress.checkpointId, progress.chunkEndOffset,
+                    progress.chunkEndLine, progress.recordsBefore + progress.recordsProcessed + progress.chunkRecords,
+                    progress.failedBefore + progress.failedLines + progress.chunkFailed);
+        }
+        // Keep the persistence context from growing with the file
+        entityManager.flush();
+        entityManager.clear();
     }
 
-    private void saveOrUpdateReview(Review review) {
-        Optional<Review> existing = reviewRepository.findByReviewIdAndProviderId(
-                review.getReviewId(), review.getProviderId());
-                
-        if (existing.isPresent()) {
-            Review existingReview = existing.get();
-            existingReview.setRating(review.getRating());
-            existingReview.setReviewComments(review.getReviewComments());
-            existingReview.setUpdatedAt(LocalDateTime.now());
-            reviewRepository.save(existingReview);
-        } else {
-            reviewRepository.save(review);
+    // The first few rejected lines of each file are always logged; after that, one per interval across all files
+    private void logRejected(RejectedLine line, int rejectedBefore) {
+        if (rejectedBefore >= rejectedLogSample) {
+            long now = System.currentTimeMillis();
+            long allowedAt = nextRejectedLogAt.get();
+            if (now < allowedAt || !nextRejectedLogAt.compareAndSet(allowedAt, now + rejectedLogIntervalMs)) {
+                return;
+            }
         }
+        log.warn("Rejected line {} in file {}: {}", line.lineNumber(), line.sourceFile(), line.reason());
     }
 
-    private void saveOrUpdateOverallRating(OverallRating rating) {
-        Optional<OverallRating> existing = overallRatingRepository.findByHotelIdAndProviderId(
-                rating.getHotelId(), rating.getProviderId());
-                
-        if (existing.isPresent()) {
-            OverallRating existingRating = existing.get();
-            existingRating.setOverallScore(rating.getOverallScore());
-            existingRating.setReviewCount(rating.getReviewCount());
-            existingRating.setGrades(rating.getGrades());
-            existingRating.setUpdatedAt(LocalDateTime.now());
-            overallRatingRepository.save(existingRating);
-        } else {
-            overallRatingRepository.save(rating);
+    private static List<S3Service.S3FileInfo> admitNewFiles(List<S3Service.S3FileInfo> page,
+                                                            Set<String> completedKeys, ListingProgress listing) {
+        List<S3Service.S3FileInfo> newFiles = new ArrayList<>(page.size());
+        for (S3Service.S3FileInfo file : page) {
+            boolean completed = completedKeys.contains(file.getKey());
+            listing.listed(file.getKey(), completed);
+            if (!completed) {
+                newFiles.add(file);
+            }
         }
+        return newFiles;
     }
 
-    private boolean isValidReview(ReviewJsonDto dto) {
-        return dto.getHotelId() != null && 
-               dto.getComment() != null && 
-               dto.getComment().getHotelReviewId() != null &&
-               dto.getComment().getProviderId() != null;
+    // One count and one streamed query for the listed key range instead of a lookup per listed key
+    private Set<String> loadCompletedFilenames(String prefix, String startAfter) {
+        String after = startAfter != null ? startAfter : "";
+        long started = System.currentTimeMillis();
+        Set<String> completed = transactionTemplate.execute(status -> {
+            long count = processedFileRepository.countCompletedByPrefix(prefix, after);
+            Set<String> filenames = new HashSet<>((int) Math.min(Integer.MAX_VALUE, count * 4 / 3 + 16));
+            try (Stream<String> rows = processedFileRepository.streamCompletedFilenamesByPrefix(prefix, after)) {
+                rows.forEach(filenames::add);
+            }
+            return filenames;
+        });
+        log.info("Loaded {} completed filenames under {} in {}ms",
+                completed.size(), prefix, System.currentTimeMillis() - started);
+        return completed;
     }
 
-    private List<S3Service.S3FileInfo> filterNewFiles(List<S3Service.S3FileInfo> files) {
-        return files.stream()
-                .filter(file -> !processedFileRepository.existsByFilename(file.getKey()))
-                .toList();
+    // Loads or creates the file's in-progress record and returns the byte offset to resume from
+    private long resumePosition(S3Service.S3FileInfo fileInfo, FileProgress progress) {
+        ProcessedFile checkpoint = transactionTemplate.execute(status -> {
+            ProcessedFile existing = processedFileRepository.findByFilename(fileInfo.getKey()).orElse(null);
+            if (existing != null && existing.getCommittedOffset() != null
+                    && Objects.equals(existing.getSourceSize(), fileInfo.getSize())) {
+                return existing;
+            }
+
+            // New file, or the object was replaced since the checkpoint was taken
+            ProcessedFile started = existing != null
+                    ? existing
+                    : ProcessedFile.builder().filename(fileInfo.getKey()).build();
+            started.setStatus(ProcessedFile.Status.IN_PROGRESS);
+            started.setSourceSize(fileInfo.getSize());
+            started.setCommittedOffset(0L);
+            started.setCommittedLine(0L);
+            started.setRecordsProcessed(0);
+            started.setFailedLines(0);
+            started.setProcessedAt(LocalDateTime.now());
+            return processedFileRepository.save(started);
+        });
+
+        progress.checkpointId = checkpoint.getId();
+        progress.recordsBefore = checkpoint.getRecordsProcessed() != null ? checkpoint.getRecordsProcessed() : 0;
+        progress.failedBefore = checkpoint.getFailedLines() != null ? checkpoint.getFailedLines() : 0;
+        progress.committedOffset = checkpoint.getCommittedOffset();
+        progress.committedLine = checkpoint.getCommittedLine();
+        deadLetterSink.discardAfter(fileInfo.getKey(), progress.committedLine);
+        if (progress.committedOffset > 0) {
+            log.info("Resuming file {} at byte {} after line {} ({} records already committed)",
+                    fileInfo.getKey(), progress.committedOffset, progress.committedLine, progress.recordsBefore);
+        }
+        return progress.committedOffset;
     }
 
-    private void markFileAsProcessed(String filename, int recordsProcessed, long duration) {
-        ProcessedFile processedFile = ProcessedFile.builder()
-                .filename(filename)
-                .recordsProcessed(recordsProcessed)
-                .processingDurationMs(duration)
-                .processedAt(LocalDateTime.now())
-                .build();
-        processedFileRepository.save(processedFile);
+    private static class FileProgress {
+        private Long checkpointId;
+        private int recordsBefore;
+        private int failedBefore;
+        private long committedOffset;
+        private long committedLine;
+        private long chunkEndOffset;
+        private long chunkEndLine;
+        private int recordsProcessed;
+        private int chunkRecords;
+        private int failedLines;
+        private int chunkFailed;
+        private UpsertCounts committed = UpsertCounts.NONE;
+        private int skipped;
     }
 
     @lombok.Data
@@ -253,6 +357,10 @@ public class ReviewProcessingService {
     public static class ProcessingResult {
         private String filename;
         private int recordsProcessed;
+        private int rowsInserted;
+        private int rowsUpdated;
+        private int rowsSkipped;
+        private int failedLines;
         private long processingTime;
         private boolean success;
         private String error;
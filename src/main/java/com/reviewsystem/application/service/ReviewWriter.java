@@ -0,0 +1,21 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+
+// Persists the rows produced from one file. Implementations are used by a single thread.
+public interface ReviewWriter extends AutoCloseable {
+
+    void write(Review review);
+
+    // Pushes everything buffered so far into the reviews table
+    void flush();
+
+    UpsertCounts getCounts();
+
+    // Rows handed to write() that were neither inserted nor changed, including in-file duplicates
+    int getRowsSkipped();
+
+    @Override
+    void close();
+}
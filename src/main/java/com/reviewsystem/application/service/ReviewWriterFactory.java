@@ -0,0 +1,73 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import com.reviewsystem.infrastructure.repository.ReviewCopyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewWriterFactory {
+
+    public static final String MODE_BATCH = "batch";
+    public static final String MODE_COPY = "copy";
+
+    private final DataSource dataSource;
+    private final ReviewBulkRepository reviewBulkRepository;
+    private final ReviewCopyRepository reviewCopyRepository;
+
+    @Value("${app.processing.persistence-mode:batch}")
+    private String persistenceMode;
+
+    @Value("${app.processing.batch-size:100}")
+    private int batchSize;
+
+    private volatile String effectiveMode;
+
+    public ReviewWriter create() {
+        if (MODE_COPY.equals(getEffectiveMode())) {
+            return new ReviewCopyWriter(reviewCopyRepository.openLoad());
+        }
+        return new ReviewBatchWriter(reviewBulkRepository, batchSize);
+    }
+
+    public String getEffectiveMode() {
+        String mode = effectiveMode;
+        if (mode == null) {
+            mode = resolveMode();
+            effectiveMode = mode;
+        }
+        return mode;
+    }
+
+    private String resolveMode() {
+        if (!MODE_COPY.equalsIgnoreCase(persistenceMode)) {
+            return MODE_BATCH;
+        }
+        // COPY is PostgreSQL-only; H2 (tests) and anything else use the batched upsert path
+        String product = databaseProductName();
+        if (product == null || !product.toLowerCase().contains("postgresql")) {
+            log.warn("Persistence mode 'copy' requires PostgreSQL but database is {}; using batched upserts", product);
+            return MODE_BATCH;
+        }
+        log.info("Using COPY-based bulk load persistence");
+        return MODE_COPY;
+    }
+
+    private String databaseProductName() {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not determine database product: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.repository.DeadLetterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Inserts rejected lines inside the chunk transaction, so a rolled-back chunk leaves no dead letters behind
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.dead-letter.sink", havingValue = "table", matchIfMissing = true)
+public class TableDeadLetterSink implements DeadLetterSink {
+
+    private final DeadLetterRepository deadLetterRepository;
+
+    @Override
+    public void write(List<RejectedLine> lines) {
+        deadLetterRepository.insert(lines);
+    }
+
+    @Override
+    public String location(String sourceFile) {
+        return "table dead_letter_lines";
+    }
+}
@@ -0,0 +1,26 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+// Reviewer countries, referenced from reviews by a small integer key
+@Entity
+@Table(name = "countries", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_countries_name", columnNames = "name")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Country {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private String name;
+}
@@ -0,0 +1,39 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "dead_letter_lines", indexes = {
+    @Index(name = "idx_dead_letter_source_file", columnList = "source_file,line_number")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeadLetterLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_file", nullable = false, length = 500)
+    private String sourceFile;
+
+    @Column(name = "line_number", nullable = false)
+    private Long lineNumber;
+
+    @Column(length = 1000)
+    private String reason;
+
+    @Column(name = "raw_line", columnDefinition = "TEXT")
+    private String rawLine;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hotels", indexes = {
+    @Index(name = "idx_hotels_platform", columnList = "platform")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Hotel {
+
+    // The source hotelId, shared with reviews.hotel_id and overall_ratings.hotel_id
+    @Id
+    private Long id;
+
+    @Column(length = 50)
+    private String platform;
+
+    @Column(name = "hotel_name")
+    private String hotelName;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+// Greatest key under a prefix below which every listed file is completed, one row per advance.
+// Older rows are kept for the lookback window, since the next listing starts after the watermark
+// that was current one window ago.
+@Entity
+@Table(name = "listing_watermarks", indexes = {
+    @Index(name = "idx_listing_watermark_prefix", columnList = "prefix,recordedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ListingWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(length = 500)
+    private String prefix;
+
+    @NotNull
+    @Column(name = "watermark_key", length = 1024)
+    private String watermarkKey;
+
+    @NotNull
+    @Column(name = "recorded_at")
+    private LocalDateTime recordedAt;
+}
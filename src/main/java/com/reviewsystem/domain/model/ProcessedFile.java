@@ -34,10 +34,32 @@ public class ProcessedFile {
     @Column(name = "processing_duration_ms")
     private Long processingDurationMs;
 
+    // Rows written before checkpoints existed have no status and count as completed
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Status status;
+
+    @Column(name = "committed_offset")
+    private Long committedOffset;
+
+    @Column(name = "committed_line")
+    private Long committedLine;
+
+    @Column(name = "source_size")
+    private Long sourceSize;
+
+    @Column(name = "failed_lines")
+    private Integer failedLines;
+
     @PrePersist
     protected void onCreate() {
         if (processedAt == null) {
             processedAt = LocalDateTime.now();
         }
     }
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
 }
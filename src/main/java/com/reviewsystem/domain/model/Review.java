@@ -3,10 +3,12 @@ package com.reviewsystem.domain.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -17,8 +19,9 @@ import java.util.Map;
 @Table(name = "reviews", indexes = {
     @Index(name = "idx_review_provider", columnList = "reviewId,providerId", unique = true),
     @Index(name = "idx_hotel_id", columnList = "hotelId"),
-    @Index(name = "idx_platform", columnList = "platform"),
-    @Index(name = "idx_review_date", columnList = "reviewDate")
+    @Index(name = "idx_review_date", columnList = "reviewDate"),
+    // countBySourceFile and deleteBySourceFile filter on it
+    @Index(name = "idx_reviews_source_file", columnList = "sourceFile")
 })
 @Data
 @NoArgsConstructor
@@ -34,12 +37,12 @@ public class Review {
     @Column(name = "hotel_id")
     private Long hotelId;
 
-    @NotNull
-    @Size(max = 50)
+    // Hotel and reviewer attributes live in dimension tables; reads join them back, while ingestion
+    // sets the values in memory and ReviewDimensionResolver fills in the keys before rows are written
+    @Formula("(SELECT h.platform FROM hotels h WHERE h.id = hotel_id)")
     private String platform;
 
-    @Size(max = 255)
-    @Column(name = "hotel_name")
+    @Formula("(SELECT h.hotel_name FROM hotels h WHERE h.id = hotel_id)")
     private String hotelName;
 
     @NotNull
@@ -65,21 +68,33 @@ public class Review {
     @Column(name = "check_in_date")
     private String checkInDate;
 
-    @Column(name = "reviewer_country")
+    @Formula("(SELECT c.name FROM countries c WHERE c.id = reviewer_country_id)")
     private String reviewerCountry;
 
+    @JsonIgnore
+    @Column(name = "reviewer_country_id")
+    private Integer reviewerCountryId;
+
     @Column(name = "reviewer_name")
     private String reviewerName;
 
-    @Column(name = "room_type")
+    @Formula("(SELECT t.name FROM room_types t WHERE t.id = room_type_id)")
     private String roomType;
 
+    @JsonIgnore
+    @Column(name = "room_type_id")
+    private Integer roomTypeId;
+
     @Column(name = "length_of_stay")
     private Integer lengthOfStay;
 
-    @Column(name = "review_group_name")
+    @Formula("(SELECT g.name FROM review_groups g WHERE g.id = review_group_id)")
     private String reviewGroupName;
 
+    @JsonIgnore
+    @Column(name = "review_group_id")
+    private Integer reviewGroupId;
+
     @Column(name = "translate_source")
     private String translateSource;
 
@@ -92,6 +107,11 @@ public class Review {
     @Column(name = "source_file")
     private String sourceFile;
 
+    // Storage-side change fingerprint, kept out of API responses
+    @JsonIgnore
+    @Column(name = "content_hash")
+    private Long contentHash;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -0,0 +1,26 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+// Reviewer group names (Couple, Family...), referenced from reviews by a small integer key
+@Entity
+@Table(name = "review_groups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_review_groups_name", columnNames = "name")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewGroup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private String name;
+}
@@ -0,0 +1,26 @@
+package com.reviewsystem.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+// Room type names, referenced from reviews by a small integer key
+@Entity
+@Table(name = "room_types", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_room_types_name", columnNames = "name")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomType {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private String name;
+}
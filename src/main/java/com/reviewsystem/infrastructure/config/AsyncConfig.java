@@ -14,6 +14,16 @@ public class AsyncConfig implements AsyncConfigurer {
     @Value("${app.processing.max-concurrency:5}")
     private int maxConcurrency;
 
+    @Value("${app.pipeline.parser-threads:0}")
+    private int parserThreads;
+
+    @Value("${aws.s3.transfer-threads:16}")
+    private int transferThreads;
+
+    @Value("${aws.s3.spool.prefetch-files:4}")
+    private int prefetchFiles;
+
+    // FileProcessingEngine queues files itself and submits one long-running task per worker
     @Bean(name = "fileProcessingExecutor")
     public Executor fileProcessingExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -25,6 +35,61 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    // One reader per in-flight file, feeding the shared parser pool
+    @Bean(name = "lineReaderExecutor")
+    public Executor lineReaderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setThreadNamePrefix("LineReader-");
+        executor.initialize();
+        return executor;
+    }
+
+    // One inflater per in-flight compressed file, ahead of its line reader
+    @Bean(name = "decompressionExecutor")
+    public Executor decompressionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setThreadNamePrefix("Decompressor-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "lineParserExecutor")
+    public Executor lineParserExecutor() {
+        int threads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("LineParser-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Concurrent ranged GETs for large objects
+    @Bean(name = "s3TransferExecutor")
+    public Executor s3TransferExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(transferThreads);
+        executor.setMaxPoolSize(transferThreads);
+        executor.setThreadNamePrefix("S3Transfer-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Whole-object downloads into the local spool, at most one per prefetched file
+    @Bean(name = "prefetchExecutor")
+    public Executor prefetchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, prefetchFiles));
+        executor.setMaxPoolSize(Math.max(1, prefetchFiles));
+        executor.setThreadNamePrefix("S3Prefetch-");
+        executor.initialize();
+        return executor;
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return fileProcessingExecutor();
@@ -1,23 +1,76 @@
 package com.reviewsystem.infrastructure.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 @Configuration
+@Slf4j
 public class S3Config {
 
+    // Rough sustained throughput of one S3 GET connection, used to turn a throughput target into connections
+    private static final double BYTES_PER_SECOND_PER_CONNECTION = 85e6;
+
     @Value("${aws.region:us-east-1}")
     private String awsRegion;
 
+    @Value("${aws.s3.client.max-connections:0}")
+    private int maxConnections;
+
+    @Value("${aws.s3.client.target-throughput-gbps:0}")
+    private double targetThroughputGbps;
+
+    @Value("${app.processing.max-concurrency:5}")
+    private int maxConcurrency;
+
+    @Value("${aws.s3.transfer-threads:16}")
+    private int transferThreads;
+
+    @Value("${aws.s3.spool.prefetch-files:4}")
+    private int prefetchFiles;
+
+    // Listing, ranged GETs, spool downloads and the file workers' streams all go through this client
     @Bean
     public S3Client s3Client() {
+        int connections = connectionPoolSize(maxConnections, maxConcurrency + transferThreads + prefetchFiles,
+                targetThroughputGbps);
+        log.info("S3 client pool: {} connections", connections);
         return S3Client.builder()
                 .region(Region.of(awsRegion))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(connections))
+                .build();
+    }
+
+    // Whole-object streams opened by the file workers, including cache fills, are read on Netty's event
+    // loop. Spool prefetches and ranged GETs stay on the sync client, so one connection per worker is enough.
+    @Bean
+    @ConditionalOnProperty(name = "aws.s3.client.mode", havingValue = "async")
+    public S3AsyncClient s3AsyncClient() {
+        int connections = connectionPoolSize(maxConnections, maxConcurrency, targetThroughputGbps);
+        log.info("S3 async client pool: {} connections", connections);
+        return S3AsyncClient.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(connections))
                 .build();
     }
+
+    // An explicit max-connections wins; otherwise one connection per caller that can hold one at a time,
+    // raised to what the throughput target needs
+    static int connectionPoolSize(int configured, int concurrentCallers, double targetThroughputGbps) {
+        if (configured > 0) {
+            return configured;
+        }
+        int forThroughput = (int) Math.ceil(targetThroughputGbps * 1e9 / 8 / BYTES_PER_SECOND_PER_CONNECTION);
+        return Math.max(1, Math.max(concurrentCallers, forThroughput));
+    }
 }
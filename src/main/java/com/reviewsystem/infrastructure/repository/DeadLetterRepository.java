@@ -0,0 +1,34 @@
+package com.reviewsystem.infrastructure.repository;
+
+import com.reviewsystem.application.service.RejectedLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class DeadLetterRepository {
+
+    private static final String INSERT = "INSERT INTO dead_letter_lines "
+            + "(source_file, line_number, reason, raw_line, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<RejectedLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, lines, lines.size(), (ps, line) -> {
+            ps.setString(1, line.sourceFile());
+            ps.setLong(2, line.lineNumber());
+            ps.setString(3, line.reason());
+            ps.setString(4, line.rawLine());
+            ps.setTimestamp(5, now);
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.reviewsystem.infrastructure.repository;
+
+import com.reviewsystem.domain.model.ListingWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ListingWatermarkRepository extends JpaRepository<ListingWatermark, Long> {
+
+    Optional<ListingWatermark> findFirstByPrefixOrderByRecordedAtDesc(String prefix);
+
+    Optional<ListingWatermark> findFirstByPrefixAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+            String prefix, LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ListingWatermark w WHERE w.prefix = :prefix AND w.recordedAt < :before")
+    int deleteOlderThan(@Param("prefix") String prefix, @Param("before") LocalDateTime before);
+}
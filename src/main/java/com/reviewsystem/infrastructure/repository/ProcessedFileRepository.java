@@ -1,13 +1,47 @@
 package com.reviewsystem.infrastructure.repository;
 
 import com.reviewsystem.domain.model.ProcessedFile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProcessedFileRepository extends JpaRepository<ProcessedFile, Long> {
     Optional<ProcessedFile> findByFilename(String filename);
     boolean existsByFilename(String filename);
+
+    // Completed means a COMPLETED status, or no status on rows written before checkpoints existed
+    @Query("SELECT COUNT(p) FROM ProcessedFile p WHERE p.filename LIKE CONCAT(:prefix, '%') "
+            + "AND p.filename > :after "
+            + "AND (p.status IS NULL OR p.status = com.reviewsystem.domain.model.ProcessedFile$Status.COMPLETED)")
+    long countCompletedByPrefix(@Param("prefix") String prefix, @Param("after") String after);
+
+    // Must be consumed inside a transaction; the fetch size lets PostgreSQL stream it through a cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT p.filename FROM ProcessedFile p WHERE p.filename LIKE CONCAT(:prefix, '%') "
+            + "AND p.filename > :after "
+            + "AND (p.status IS NULL OR p.status = com.reviewsystem.domain.model.ProcessedFile$Status.COMPLETED)")
+    Stream<String> streamCompletedFilenamesByPrefix(@Param("prefix") String prefix, @Param("after") String after);
+
+    @Modifying
+    @Query("UPDATE ProcessedFile p SET p.committedOffset = :offset, p.committedLine = :line, "
+            + "p.recordsProcessed = :records, p.failedLines = :failed WHERE p.id = :id")
+    int updateCheckpoint(@Param("id") Long id, @Param("offset") long offset, @Param("line") long line,
+                         @Param("records") int records, @Param("failed") int failedLines);
+
+    @Modifying
+    @Query("UPDATE ProcessedFile p SET p.status = com.reviewsystem.domain.model.ProcessedFile$Status.COMPLETED, "
+            + "p.recordsProcessed = :records, p.failedLines = :failed, p.processingDurationMs = :durationMs, "
+            + "p.processedAt = :processedAt WHERE p.id = :id")
+    int markCompleted(@Param("id") Long id, @Param("records") int records, @Param("failed") int failedLines,
+                      @Param("durationMs") long durationMs, @Param("processedAt") LocalDateTime processedAt);
 }
@@ -0,0 +1,260 @@
+package com.reviewsystem.infrastructure.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// Reviews are written as multi-row INSERT ... ON CONFLICT statements of up to 500 rows, one round trip
+// each, because RETURNING tells inserted rows from updated ones and a JDBC batch cannot return result sets.
+// Overall ratings only need a written count, so their full statements go out together as one JDBC batch.
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewBulkRepository {
+
+    // PostgreSQL caps a statement at 32767 bind parameters
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    // Hotel name/platform and reviewer attributes are written as dimension keys, resolved during parsing
+    private static final String REVIEW_COLUMNS = "hotel_id, review_id, provider_id, rating, "
+            + "review_title, review_comments, review_date, check_in_date, reviewer_country_id, reviewer_name, "
+            + "room_type_id, length_of_stay, review_group_id, translate_source, translate_target, "
+            + "processed_at, source_file, content_hash, created_at, updated_at";
+
+    private static final int REVIEW_COLUMN_COUNT = 20;
+
+    // The content hash covers every column updated here, so an unchanged review writes no new tuple
+    public static final String REVIEW_CONFLICT_CLAUSE = " ON CONFLICT (review_id, provider_id) DO UPDATE SET "
+            + "rating = EXCLUDED.rating, "
+            + "review_title = EXCLUDED.review_title, "
+            + "review_comments = EXCLUDED.review_comments, "
+            + "reviewer_country_id = EXCLUDED.reviewer_country_id, "
+            + "reviewer_name = EXCLUDED.reviewer_name, "
+            + "room_type_id = EXCLUDED.room_type_id, "
+            + "length_of_stay = EXCLUDED.length_of_stay, "
+            + "review_group_id = EXCLUDED.review_group_id, "
+            + "content_hash = EXCLUDED.content_hash, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE EXCLUDED.content_hash IS NULL OR reviews.content_hash IS DISTINCT FROM EXCLUDED.content_hash";
+
+    // xmax is zero only on a freshly inserted tuple, which tells inserts from updates
+    public static final String RETURNING_INSERTED = " RETURNING (xmax = 0) AS inserted";
+
+    private static final String RATING_COLUMNS = "hotel_id, provider_id, provider, overall_score, review_count, "
+            + "grades, created_at, updated_at";
+
+    private static final String RATING_ROW = "(?,?,?,?,?,CAST(? AS jsonb),?,?)";
+
+    private static final String RATING_CONFLICT_CLAUSE = " ON CONFLICT (hotel_id, provider_id) DO UPDATE SET "
+            + "overall_score = EXCLUDED.overall_score, "
+            + "review_count = EXCLUDED.review_count, "
+            + "grades = EXCLUDED.grades, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE overall_ratings.overall_score IS DISTINCT FROM EXCLUDED.overall_score "
+            + "OR overall_ratings.review_count IS DISTINCT FROM EXCLUDED.review_count "
+            + "OR overall_ratings.grades IS DISTINCT FROM EXCLUDED.grades";
+
+    // Rows are written in key order, so concurrent transactions upserting overlapping keys lock them in
+    // the same order and wait on each other instead of deadlocking
+    private static final Comparator<Review> REVIEW_KEY_ORDER =
+            Comparator.comparing(Review::getReviewId).thenComparing(Review::getProviderId);
+
+    private static final Comparator<OverallRating> RATING_KEY_ORDER =
+            Comparator.comparing(OverallRating::getHotelId).thenComparing(OverallRating::getProviderId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UpsertCounts upsertReviews(List<Review> reviews) {
+        LocalDateTime now = LocalDateTime.now();
+        return upsert(sorted(reviews, REVIEW_KEY_ORDER), ReviewBulkRepository::buildReviewUpsert,
+                (ps, rows) -> bindReviews(ps, rows, now));
+    }
+
+    public int upsertOverallRatings(List<OverallRating> ratings) {
+        LocalDateTime now = LocalDateTime.now();
+        return batchUpsert(sorted(ratings, RATING_KEY_ORDER), ReviewBulkRepository::buildRatingUpsert,
+                (ps, rows) -> bindRatings(ps, rows, now));
+    }
+
+    private static <T> List<T> sorted(List<T> rows, Comparator<T> order) {
+        List<T> copy = new ArrayList<>(rows);
+        copy.sort(order);
+        return copy;
+    }
+
+    // Full statements share one SQL string and are sent as a single JDBC batch; a partial last slice
+    // follows on its own. Update counts cover inserted rows and rows the conflict clause changed.
+    private <T> int batchUpsert(List<T> rows, StatementBuilder statementBuilder, RowBinder<T> binder) {
+        int fullSlices = rows.size() / MAX_ROWS_PER_STATEMENT;
+        int written = 0;
+        if (fullSlices > 0) {
+            int[] counts = jdbcTemplate.batchUpdate(statementBuilder.build(MAX_ROWS_PER_STATEMENT),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int slice) throws SQLException {
+                            int from = slice * MAX_ROWS_PER_STATEMENT;
+                            binder.bind(ps, rows.subList(from, from + MAX_ROWS_PER_STATEMENT));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return fullSlices;
+                        }
+                    });
+            written += Arrays.stream(counts).map(count -> Math.max(0, count)).sum();
+        }
+        List<T> rest = rows.subList(fullSlices * MAX_ROWS_PER_STATEMENT, rows.size());
+        if (!rest.isEmpty()) {
+            written += jdbcTemplate.update(statementBuilder.build(rest.size()), ps -> binder.bind(ps, rest));
+        }
+        log.debug("Upserted {} rows in a batch of {} statements plus {}: {} written",
+                rows.size(), fullSlices, rest.isEmpty() ? 0 : 1, written);
+        return written;
+    }
+
+    private <T> UpsertCounts upsert(List<T> rows, StatementBuilder statementBuilder, RowBinder<T> binder) {
+        if (rows.isEmpty()) {
+            return UpsertCounts.NONE;
+        }
+
+        // Full statements share one SQL string; RETURNING reports which rows were inserted or changed
+        String fullStatement = null;
+        int inserted = 0;
+        int updated = 0;
+        int statements = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<T> slice = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            String sql;
+            if (slice.size() == MAX_ROWS_PER_STATEMENT) {
+                if (fullStatement == null) {
+                    fullStatement = statementBuilder.build(MAX_ROWS_PER_STATEMENT) + RETURNING_INSERTED;
+                }
+                sql = fullStatement;
+            } else {
+                sql = statementBuilder.build(slice.size()) + RETURNING_INSERTED;
+            }
+
+            UpsertCounts counts = jdbcTemplate.query(sql, ps -> binder.bind(ps, slice), ReviewBulkRepository::countReturned);
+            inserted += counts.inserted();
+            updated += counts.updated();
+            statements++;
+        }
+
+        log.debug("Upserted {} rows in {} statements: {} inserted, {} updated", rows.size(), statements, inserted, updated);
+        return new UpsertCounts(inserted, updated);
+    }
+
+    private static UpsertCounts countReturned(ResultSet rs) throws SQLException {
+        int inserted = 0;
+        int updated = 0;
+        while (rs.next()) {
+            if (rs.getBoolean(1)) {
+                inserted++;
+            } else {
+                updated++;
+            }
+        }
+        return new UpsertCounts(inserted, updated);
+    }
+
+    private static String buildReviewUpsert(int rows) {
+        StringBuilder sql = new StringBuilder(64 + rows * REVIEW_COLUMN_COUNT * 3)
+                .append("INSERT INTO reviews (").append(REVIEW_COLUMNS).append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "(" : ",(");
+            for (int column = 0; column < REVIEW_COLUMN_COUNT; column++) {
+                sql.append(column == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+        }
+        return sql.append(REVIEW_CONFLICT_CLAUSE).toString();
+    }
+
+    private static String buildRatingUpsert(int rows) {
+        StringBuilder sql = new StringBuilder(64 + rows * (RATING_ROW.length() + 1))
+                .append("INSERT INTO overall_ratings (").append(RATING_COLUMNS).append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "" : ",").append(RATING_ROW);
+        }
+        return sql.append(RATING_CONFLICT_CLAUSE).toString();
+    }
+
+    private static void bindReviews(PreparedStatement ps, List<Review> reviews, LocalDateTime now) throws SQLException {
+        int index = 1;
+        for (Review review : reviews) {
+            ps.setObject(index++, review.getHotelId(), Types.BIGINT);
+            ps.setObject(index++, review.getReviewId(), Types.VARCHAR);
+            ps.setObject(index++, review.getProviderId(), Types.BIGINT);
+            ps.setObject(index++, review.getRating(), Types.DOUBLE);
+            ps.setObject(index++, review.getReviewTitle(), Types.VARCHAR);
+            ps.setObject(index++, review.getReviewComments(), Types.VARCHAR);
+            ps.setObject(index++, review.getReviewDate(), Types.TIMESTAMP);
+            ps.setObject(index++, review.getCheckInDate(), Types.VARCHAR);
+            ps.setObject(index++, review.getReviewerCountryId(), Types.INTEGER);
+            ps.setObject(index++, review.getReviewerName(), Types.VARCHAR);
+            ps.setObject(index++, review.getRoomTypeId(), Types.INTEGER);
+            ps.setObject(index++, review.getLengthOfStay(), Types.INTEGER);
+            ps.setObject(index++, review.getReviewGroupId(), Types.INTEGER);
+            ps.setObject(index++, review.getTranslateSource(), Types.VARCHAR);
+            ps.setObject(index++, review.getTranslateTarget(), Types.VARCHAR);
+            ps.setObject(index++, now, Types.TIMESTAMP);
+            ps.setObject(index++, review.getSourceFile(), Types.VARCHAR);
+            ps.setObject(index++, review.getContentHash(), Types.BIGINT);
+            ps.setObject(index++, now, Types.TIMESTAMP);
+            ps.setObject(index++, now, Types.TIMESTAMP);
+        }
+    }
+
+    private void bindRatings(PreparedStatement ps, List<OverallRating> ratings, LocalDateTime now) throws SQLException {
+        int index = 1;
+        for (OverallRating rating : ratings) {
+            ps.setObject(index++, rating.getHotelId(), Types.BIGINT);
+            ps.setObject(index++, rating.getProviderId(), Types.BIGINT);
+            ps.setObject(index++, rating.getProvider(), Types.VARCHAR);
+            ps.setObject(index++, rating.getOverallScore(), Types.DOUBLE);
+            ps.setObject(index++, rating.getReviewCount(), Types.INTEGER);
+            ps.setObject(index++, toJson(rating.getGrades()), Types.VARCHAR);
+            ps.setObject(index++, now, Types.TIMESTAMP);
+            ps.setObject(index++, now, Types.TIMESTAMP);
+        }
+    }
+
+    private String toJson(Map<String, Double> grades) {
+        if (grades == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(grades);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialise grades", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementBuilder {
+        String build(int rows);
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, List<T> rows) throws SQLException;
+    }
+}
@@ -0,0 +1,232 @@
+package com.reviewsystem.infrastructure.repository;
+
+import com.reviewsystem.domain.model.Review;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewCopyRepository {
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private static final String STAGE_REVIEW_COLUMNS = "line_no, hotel_id, review_id, "
+            + "provider_id, rating, review_title, review_comments, review_date, check_in_date, reviewer_country_id, "
+            + "reviewer_name, room_type_id, length_of_stay, review_group_id, translate_source, translate_target, "
+            + "source_file, content_hash";
+
+    private final DataSource dataSource;
+
+    public StagingLoad openLoad() {
+        StagingLoad load = new StagingLoad("stg_reviews_" + UUID.randomUUID().toString().replace("-", ""));
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            load.createStagingTable(connection);
+            return load;
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Open COPY staging load", null, e);
+        }
+    }
+
+    // One unlogged staging table per file. Each chunk's rows are copied into it and merged into reviews on
+    // the chunk transaction's own connection, so the merge commits or rolls back with that chunk's
+    // checkpoint and dead letters; staged rows of a rolled-back chunk disappear with it.
+    public class StagingLoad implements AutoCloseable {
+
+        private final String reviewStage;
+        private final StringBuilder pending = new StringBuilder(COPY_BUFFER_CHARS + 4096);
+        private Connection connection;
+        private CopyIn reviewCopy;
+        private long lineNo;
+
+        private StagingLoad(String reviewStage) {
+            this.reviewStage = reviewStage;
+        }
+
+        private void createStagingTable(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE UNLOGGED TABLE " + reviewStage + " ("
+                        + "line_no BIGINT, hotel_id BIGINT, "
+                        + "review_id VARCHAR(255), provider_id BIGINT, rating DOUBLE PRECISION, "
+                        + "review_title VARCHAR(500), review_comments TEXT, review_date TIMESTAMP, "
+                        + "check_in_date VARCHAR(255), reviewer_country_id INTEGER, reviewer_name VARCHAR(255), "
+                        + "room_type_id INTEGER, length_of_stay INTEGER, review_group_id INTEGER, "
+                        + "translate_source VARCHAR(255), translate_target VARCHAR(255), source_file VARCHAR(500), "
+                        + "content_hash BIGINT)");
+            }
+        }
+
+        public void appendReview(Review review) {
+            try {
+                if (reviewCopy == null) {
+                    startCopy();
+                }
+                pending.append(++lineNo);
+                appendField(review.getHotelId());
+                appendField(review.getReviewId());
+                appendField(review.getProviderId());
+                appendField(review.getRating());
+                appendField(review.getReviewTitle());
+                appendField(review.getReviewComments());
+                appendField(review.getReviewDate());
+                appendField(review.getCheckInDate());
+                appendField(review.getReviewerCountryId());
+                appendField(review.getReviewerName());
+                appendField(review.getRoomTypeId());
+                appendField(review.getLengthOfStay());
+                appendField(review.getReviewGroupId());
+                appendField(review.getTranslateSource());
+                appendField(review.getTranslateTarget());
+                appendField(review.getSourceFile());
+                appendField(review.getContentHash());
+                pending.append('\n');
+
+                if (pending.length() >= COPY_BUFFER_CHARS) {
+                    sendPending(reviewCopy);
+                }
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("COPY into " + reviewStage, null, e);
+            }
+        }
+
+        // Ends the COPY stream and merges the staged rows into reviews in one set-based statement, inside the
+        // caller's transaction; TRUNCATE is transactional too, so a rollback restores nothing half-merged
+        public UpsertCounts merge() {
+            if (reviewCopy == null) {
+                return UpsertCounts.NONE;
+            }
+            try {
+                sendPending(reviewCopy);
+                reviewCopy.endCopy();
+                reviewCopy = null;
+                try (Statement statement = connection.createStatement()) {
+                    UpsertCounts counts;
+                    try (ResultSet rs = statement.executeQuery(buildMergeStatement())) {
+                        rs.next();
+                        counts = new UpsertCounts(rs.getInt(1), rs.getInt(2));
+                    }
+                    statement.execute("TRUNCATE " + reviewStage);
+                    return counts;
+                }
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("Merge from " + reviewStage, null, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelCopy();
+            try (Connection dropConnection = dataSource.getConnection();
+                 Statement statement = dropConnection.createStatement()) {
+                dropConnection.setAutoCommit(true);
+                statement.execute("DROP TABLE IF EXISTS " + reviewStage);
+            } catch (SQLException e) {
+                log.warn("Failed to drop staging table {}: {}", reviewStage, e.getMessage());
+            }
+        }
+
+        // COPY runs on the connection bound to the current transaction; a COPY still open when that
+        // transaction completes (the chunk failed before merge) is cancelled so the connection can roll back
+        private void startCopy() throws SQLException {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new IllegalStateException("COPY into " + reviewStage + " must run inside a chunk transaction");
+            }
+            connection = DataSourceUtils.getConnection(dataSource);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            pending.setLength(0);
+            reviewCopy = copyManager.copyIn("COPY " + reviewStage + " (" + STAGE_REVIEW_COLUMNS + ") FROM STDIN");
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCompletion() {
+                    cancelCopy();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                    connection = null;
+                }
+            });
+        }
+
+        private void cancelCopy() {
+            if (reviewCopy == null) {
+                return;
+            }
+            try {
+                if (reviewCopy.isActive()) {
+                    reviewCopy.cancelCopy();
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to cancel COPY into {}: {}", reviewStage, e.getMessage());
+            } finally {
+                reviewCopy = null;
+                pending.setLength(0);
+            }
+        }
+
+        private String buildMergeStatement() {
+            return "WITH merged AS (INSERT INTO reviews (hotel_id, review_id, provider_id, "
+                    + "rating, review_title, review_comments, review_date, check_in_date, reviewer_country_id, "
+                    + "reviewer_name, room_type_id, length_of_stay, review_group_id, translate_source, "
+                    + "translate_target, processed_at, source_file, content_hash, created_at, updated_at) "
+                    + "SELECT DISTINCT ON (review_id, provider_id) hotel_id, review_id, "
+                    + "provider_id, rating, review_title, review_comments, review_date, check_in_date, "
+                    + "reviewer_country_id, reviewer_name, room_type_id, length_of_stay, review_group_id, "
+                    + "translate_source, translate_target, LOCALTIMESTAMP, source_file, content_hash, "
+                    + "LOCALTIMESTAMP, LOCALTIMESTAMP "
+                    + "FROM " + reviewStage + " ORDER BY review_id, provider_id, line_no DESC"
+                    + ReviewBulkRepository.REVIEW_CONFLICT_CLAUSE + ReviewBulkRepository.RETURNING_INSERTED + ") "
+                    + "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM merged";
+        }
+
+        private void sendPending(CopyIn copy) throws SQLException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            byte[] bytes = pending.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            pending.setLength(0);
+        }
+
+        private void appendField(Object value) {
+            pending.append('\t');
+            if (value == null) {
+                pending.append("\\N");
+            } else {
+                appendEscaped(pending, value.toString());
+            }
+        }
+    }
+
+    // COPY text format: backslash, tab, newline and carriage return must be escaped
+    static void appendEscaped(StringBuilder target, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> target.append("\\\\");
+                case '\t' -> target.append("\\t");
+                case '\n' -> target.append("\\n");
+                case '\r' -> target.append("\\r");
+                default -> target.append(c);
+            }
+        }
+    }
+}
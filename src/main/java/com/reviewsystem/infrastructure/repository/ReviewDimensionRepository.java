@@ -0,0 +1,55 @@
+package com.reviewsystem.infrastructure.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Get-or-create for the dimension tables behind reviews. Statements run outside any chunk
+// transaction, so a key handed out is never rolled back under a cached entry.
+@Repository
+@RequiredArgsConstructor
+public class ReviewDimensionRepository {
+
+    private static final String UPSERT_HOTEL = "INSERT INTO hotels (id, platform, hotel_name, updated_at) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET "
+            + "platform = EXCLUDED.platform, hotel_name = EXCLUDED.hotel_name, updated_at = EXCLUDED.updated_at "
+            + "WHERE hotels.platform IS DISTINCT FROM EXCLUDED.platform "
+            + "OR hotels.hotel_name IS DISTINCT FROM EXCLUDED.hotel_name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum Attribute {
+        COUNTRY("countries"),
+        ROOM_TYPE("room_types"),
+        REVIEW_GROUP("review_groups");
+
+        private final String resolveSql;
+
+        Attribute(String table) {
+            // The insert returns nothing when another writer got there first, so fall back to the existing row
+            this.resolveSql = "WITH created AS (INSERT INTO " + table + " (name) VALUES (?) "
+                    + "ON CONFLICT (name) DO NOTHING RETURNING id) "
+                    + "SELECT id FROM created UNION ALL SELECT id FROM " + table + " WHERE name = ? LIMIT 1";
+        }
+    }
+
+    public int resolve(Attribute attribute, String name) {
+        // A row committed by a concurrent insert after this statement's snapshot is invisible to the
+        // fallback SELECT, so an empty result is retried once with a fresh snapshot
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<Integer> ids = jdbcTemplate.queryForList(attribute.resolveSql, Integer.class, name, name);
+            if (!ids.isEmpty()) {
+                return ids.get(0);
+            }
+        }
+        throw new IllegalStateException("No key returned for " + attribute + " '" + name + "'");
+    }
+
+    public void upsertHotel(Long id, String platform, String hotelName) {
+        jdbcTemplate.update(UPSERT_HOTEL, id, platform, hotelName, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.reviewsystem.infrastructure.repository;
+
+// Rows an upsert inserted and rows whose existing values it changed; rows left untouched are not counted
+public record UpsertCounts(int inserted, int updated) {
+
+    public static final UpsertCounts NONE = new UpsertCounts(0, 0);
+
+    public UpsertCounts plus(UpsertCounts other) {
+        return new UpsertCounts(inserted + other.inserted, updated + other.updated);
+    }
+
+    public int written() {
+        return inserted + updated;
+    }
+}
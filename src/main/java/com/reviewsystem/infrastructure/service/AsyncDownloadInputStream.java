@@ -0,0 +1,157 @@
+package com.reviewsystem.infrastructure.service;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionException;
+
+// Blocking view of an async response body. Netty's event loop does the socket reads, but the file's
+// reader thread still waits in read() until a chunk arrives; what async mode saves is the HTTP
+// client's blocked I/O thread per download. Chunks are requested one at a time while fewer than
+// `readAheadBytes` are buffered, so a slow reader leaves its connection idle instead of growing memory.
+class AsyncDownloadInputStream extends InputStream implements Subscriber<ByteBuffer> {
+
+    private final long readAheadBytes;
+    private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+    private Subscription subscription;
+    private long bufferedBytes;
+    private boolean demandPending;
+    private boolean completed;
+    private Throwable failure;
+    private boolean closed;
+
+    AsyncDownloadInputStream(long readAheadBytes) {
+        this.readAheadBytes = Math.max(1, readAheadBytes);
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        synchronized (this) {
+            if (closed) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            demandPending = true;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuffer chunk) {
+        synchronized (this) {
+            demandPending = false;
+            if (closed) {
+                return;
+            }
+            if (chunk.hasRemaining()) {
+                chunks.add(chunk);
+                bufferedBytes += chunk.remaining();
+            }
+            notifyAll();
+        }
+        requestMoreIfRoom();
+    }
+
+    @Override
+    public synchronized void onError(Throwable error) {
+        failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        completed = true;
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int count = 0;
+        synchronized (this) {
+            while (chunks.isEmpty()) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                if (failure != null) {
+                    throw new IOException("Download failed: " + failure.getMessage(), failure);
+                }
+                if (completed) {
+                    return -1;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for download");
+                }
+            }
+            while (count < length && !chunks.isEmpty()) {
+                ByteBuffer chunk = chunks.peek();
+                int n = Math.min(length - count, chunk.remaining());
+                chunk.get(buffer, offset + count, n);
+                count += n;
+                if (!chunk.hasRemaining()) {
+                    chunks.poll();
+                }
+            }
+            bufferedBytes -= count;
+        }
+        requestMoreIfRoom();
+        return count;
+    }
+
+    @Override
+    public synchronized int available() {
+        return (int) Math.min(Integer.MAX_VALUE, bufferedBytes);
+    }
+
+    @Override
+    public void close() {
+        Subscription toCancel;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            chunks.clear();
+            bufferedBytes = 0;
+            toCancel = subscription;
+            notifyAll();
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+    }
+
+    synchronized long bufferedBytes() {
+        return bufferedBytes;
+    }
+
+    private void requestMoreIfRoom() {
+        Subscription toRequest;
+        synchronized (this) {
+            if (subscription == null || demandPending || closed || completed || failure != null
+                    || bufferedBytes >= readAheadBytes) {
+                return;
+            }
+            demandPending = true;
+            toRequest = subscription;
+        }
+        toRequest.request(1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.reviewsystem.infrastructure.service;
+
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Inflates on its own thread and hands decoded chunks over a bounded queue, so decompression
+// overlaps with line splitting and parsing instead of running inside the reader's read() calls
+class DecompressingInputStream extends InputStream {
+
+    private static final int CHUNK_BYTES = 256 * 1024;
+    private static final int QUEUED_CHUNKS = 8;
+    private static final byte[] END = new byte[0];
+
+    private final InputStream source;
+    private final InputCodec codec;
+    private final Listener listener;
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private byte[] current = new byte[0];
+    private int position;
+    private boolean finished;
+
+    DecompressingInputStream(InputStream source, InputCodec codec, Executor executor, Listener listener) {
+        this.source = source;
+        this.codec = codec;
+        this.listener = listener;
+        executor.execute(this::inflate);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunks.clear();
+        // Abort rather than drain the rest of an S3 response we no longer need
+        if (source instanceof Abortable abortable) {
+            abortable.abort();
+        }
+        source.close();
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        while (position == current.length) {
+            if (finished || closed) {
+                return false;
+            }
+            try {
+                current = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for decompressed data", e);
+            }
+            position = 0;
+            if (current == END) {
+                finished = true;
+                if (failure != null) {
+                    throw failure;
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void inflate() {
+        CountingInputStream counted = new CountingInputStream(source);
+        long started = System.nanoTime();
+        long inflated = 0;
+        try (InputStream decoded = codec.decode(counted)) {
+            while (!closed) {
+                byte[] chunk = new byte[CHUNK_BYTES];
+                int read = decoded.readNBytes(chunk, 0, CHUNK_BYTES);
+                if (read == 0) {
+                    break;
+                }
+                inflated += read;
+                publish(read == CHUNK_BYTES ? chunk : Arrays.copyOf(chunk, read));
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (RuntimeException e) {
+            if (!closed) {
+                failure = new IOException("Failed to decompress " + codec.label() + " input", e);
+            }
+        } finally {
+            try {
+                listener.finished(codec, counted.count, inflated, System.nanoTime() - started);
+            } finally {
+                publish(END);
+            }
+        }
+    }
+
+    private void publish(byte[] chunk) {
+        try {
+            while (!closed) {
+                if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    interface Listener {
+        void finished(InputCodec codec, long compressedBytes, long inflatedBytes, long nanos);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.reviewsystem.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// Downloads the next planned files to local disk while workers are busy parsing earlier ones, keeping
+// at most `prefetchFiles` unclaimed files and `maxBytes` on disk. Claimed files are deleted on release.
+@Component
+@Slf4j
+public class DownloadSpool {
+
+    // The order FileProcessingEngine hands files out in, so the prefetched files are the next ones taken
+    private static final Comparator<S3Service.S3FileInfo> LARGEST_FIRST =
+            Comparator.comparingLong(S3Service.S3FileInfo::getSize).reversed();
+
+    private final S3Client s3Client;
+    private final Executor prefetchExecutor;
+    private final String bucketName;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final int prefetchFiles;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final PriorityQueue<S3Service.S3FileInfo> planned = new PriorityQueue<>(LARGEST_FIRST);
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Set<String> claimed = new HashSet<>();
+    private long reservedBytes;
+    private int unclaimedFiles;
+
+    public DownloadSpool(S3Client s3Client,
+                         @Qualifier("prefetchExecutor") Executor prefetchExecutor,
+                         MeterRegistry meterRegistry,
+                         @Value("${aws.s3.bucket}") String bucketName,
+                         @Value("${aws.s3.spool.enabled:false}") boolean enabled,
+                         @Value("${aws.s3.spool.directory:spool}") String directory,
+                         @Value("${aws.s3.spool.max-bytes:2147483648}") long maxBytes,
+                         @Value("${aws.s3.spool.prefetch-files:4}") int prefetchFiles) {
+        this.s3Client = s3Client;
+        this.prefetchExecutor = prefetchExecutor;
+        this.bucketName = bucketName;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxBytes = maxBytes;
+        this.prefetchFiles = Math.max(1, prefetchFiles);
+        this.hits = meterRegistry.counter("review.spool.opens", "result", "hit");
+        this.misses = meterRegistry.counter("review.spool.opens", "result", "miss");
+        Gauge.builder("review.spool.bytes", this, DownloadSpool::reservedBytes)
+                .description("Bytes spooled or being downloaded ahead of processing")
+                .register(meterRegistry);
+        if (enabled) {
+            deleteLeftovers();
+        }
+    }
+
+    // Adds files to the prefetch plan; files without a size or larger than the whole budget are skipped
+    public void plan(List<S3Service.S3FileInfo> files) {
+        if (!enabled) {
+            return;
+        }
+        List<Entry> started;
+        synchronized (this) {
+            for (S3Service.S3FileInfo file : files) {
+                if (file.getSize() != null && file.getSize() <= maxBytes && !claimed.contains(file.getKey())) {
+                    planned.add(file);
+                }
+            }
+            started = admit();
+        }
+        started.forEach(this::download);
+    }
+
+    // Returns the spooled copy of the file, waiting for a download already under way, or null when the
+    // file was not prefetched and must be read from S3. Either way it will not be prefetched afterwards.
+    public Path claim(S3Service.S3FileInfo file) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        List<Entry> started = List.of();
+        synchronized (this) {
+            claimed.add(file.getKey());
+            entry = entries.get(file.getKey());
+            if (entry != null && !entry.claimed) {
+                entry.claimed = true;
+                unclaimedFiles--;
+                started = admit();
+            }
+        }
+        started.forEach(this::download);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        try {
+            Path path = entry.done.join();
+            hits.increment();
+            return path;
+        } catch (CompletionException | CancellationException e) {
+            misses.increment();
+            log.warn("Prefetch of {} failed, reading it from S3: {}", file.getKey(),
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        }
+    }
+
+    // Deletes a claimed file once it has been processed, making room for the next planned ones
+    public void release(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null) {
+            evict(entry);
+        }
+    }
+
+    // Ends a run: forgets the plan and deletes spooled files nobody claimed
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        List<Entry> unclaimed = new ArrayList<>();
+        synchronized (this) {
+            planned.clear();
+            claimed.clear();
+            for (Entry entry : entries.values()) {
+                if (!entry.claimed) {
+                    entry.discarded = true;
+                    unclaimed.add(entry);
+                }
+            }
+        }
+        // Downloads still running evict themselves when they finish
+        unclaimed.stream().filter(entry -> entry.done.isDone()).forEach(this::evict);
+    }
+
+    synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    // Moves planned files into the spool while the file count and byte budget allow; caller holds the lock
+    private List<Entry> admit() {
+        List<Entry> started = new ArrayList<>();
+        S3Service.S3FileInfo next;
+        while (unclaimedFiles < prefetchFiles && (next = planned.peek()) != null) {
+            if (claimed.contains(next.getKey()) || entries.containsKey(next.getKey())) {
+                planned.poll();
+                continue;
+            }
+            if (reservedBytes + next.getSize() > maxBytes) {
+                break;
+            }
+            planned.poll();
+            Path path = directory.resolve(FileNames.sha256Hex(next.getKey(), next.getETag()) + ".spool");
+            Entry entry = new Entry(next, path);
+            entries.put(next.getKey(), entry);
+            reservedBytes += next.getSize();
+            unclaimedFiles++;
+            started.add(entry);
+        }
+        return started;
+    }
+
+    private void download(Entry entry) {
+        prefetchExecutor.execute(() -> {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(entry.file.getKey())
+                    .build();
+            try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+                Files.copy(in, entry.path, StandardCopyOption.REPLACE_EXISTING);
+                entry.done.complete(entry.path);
+            } catch (Exception e) {
+                entry.done.completeExceptionally(e);
+                evict(entry);
+                return;
+            }
+            if (entry.discarded) {
+                evict(entry);
+            }
+        });
+    }
+
+    private void evict(Entry entry) {
+        List<Entry> started;
+        synchronized (this) {
+            if (entries.get(entry.file.getKey()) != entry) {
+                return;
+            }
+            entries.remove(entry.file.getKey());
+            reservedBytes -= entry.file.getSize();
+            if (!entry.claimed) {
+                unclaimedFiles--;
+            }
+            started = admit();
+        }
+        try {
+            Files.deleteIfExists(entry.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled file {}: {}", entry.path, e.getMessage());
+        }
+        started.forEach(this::download);
+    }
+
+    private void deleteLeftovers() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.spool")) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare spool directory " + directory, e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final S3Service.S3FileInfo file;
+        private final Path path;
+        private final CompletableFuture<Path> done = new CompletableFuture<>();
+        private boolean claimed;
+        private volatile boolean discarded;
+
+        private Entry(S3Service.S3FileInfo file, Path path) {
+            this.file = file;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Local file names derived from object identities. Keys may contain any character, so flattening them
+// ('/' -> '_') lets two keys share a file; a hash of the identity cannot collide in practice.
+public final class FileNames {
+
+    private FileNames() {
+    }
+
+    // Hex SHA-256 of the parts joined by '\n', which cannot appear in an S3 key or ETag
+    public static String sha256Hex(String... parts) {
+        byte[] identity = String.join("\n", parts).getBytes(StandardCharsets.UTF_8);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(identity));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.reviewsystem.infrastructure.service;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+// Input encodings recognised by key suffix
+public enum InputCodec {
+
+    PLAIN(".jl"),
+    GZIP(".jl.gz"),
+    ZSTD(".jl.zst");
+
+    private static final int INPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final String suffix;
+
+    InputCodec(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public static Optional<InputCodec> forKey(String key) {
+        for (InputCodec codec : values()) {
+            if (key.endsWith(codec.suffix)) {
+                return Optional.of(codec);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean isCompressed() {
+        return this != PLAIN;
+    }
+
+    InputStream decode(InputStream compressed) throws IOException {
+        return switch (this) {
+            case PLAIN -> compressed;
+            // GZIPInputStream also reads concatenated members, as produced by parallel gzip tools
+            case GZIP -> new GZIPInputStream(compressed, INPUT_BUFFER_BYTES);
+            case ZSTD -> new ZstdInputStreamNoFinalizer(new BufferedInputStream(compressed, INPUT_BUFFER_BYTES));
+        };
+    }
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
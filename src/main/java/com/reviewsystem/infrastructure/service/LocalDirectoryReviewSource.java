@@ -0,0 +1,163 @@
+package com.reviewsystem.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Reviews already on local disk, such as dumps on NVMe or benchmark inputs. Keys are the files' file: URIs,
+// so they never collide with S3 keys in processed_files. Files are memory-mapped, so uncompressed input
+// is read out of the page cache without read() system calls.
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.source.type", havingValue = "local")
+public class LocalDirectoryReviewSource implements ReviewSource {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int SCAN_BYTES = 8 * 1024;
+
+    private final Path root;
+    private final String keyPrefix;
+    private final Executor decompressionExecutor;
+
+    public LocalDirectoryReviewSource(@Value("${app.source.local.directory:reviews}") String directory,
+                                      @Qualifier("decompressionExecutor") Executor decompressionExecutor) {
+        this.root = Path.of(directory).toAbsolutePath().normalize();
+        String rootUri = root.toUri().toString();
+        this.keyPrefix = rootUri.endsWith("/") ? rootUri : rootUri + "/";
+        this.decompressionExecutor = decompressionExecutor;
+    }
+
+    @Override
+    public String getPrefix() {
+        return keyPrefix;
+    }
+
+    @Override
+    public String getCommonPrefix() {
+        return keyPrefix;
+    }
+
+    @Override
+    public Stream<List<S3Service.S3FileInfo>> listPages(String startAfter) {
+        List<S3Service.S3FileInfo> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> InputCodec.forKey(path.getFileName().toString()).isPresent())
+                    .map(this::fileInfo)
+                    .filter(file -> startAfter == null || file.getKey().compareTo(startAfter) > 0)
+                    .sorted(Comparator.comparing(S3Service.S3FileInfo::getKey))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + root, e);
+        }
+        log.info("Found {} .jl/.jl.gz/.jl.zst files under {}", files.size(), root);
+        return IntStream.range(0, (files.size() + PAGE_SIZE - 1) / PAGE_SIZE)
+                .mapToObj(page -> files.subList(page * PAGE_SIZE, Math.min(files.size(), (page + 1) * PAGE_SIZE)));
+    }
+
+    @Override
+    public InputStream open(S3Service.S3FileInfo file, long offset) {
+        InputCodec codec = InputCodec.forKey(file.getKey()).orElse(InputCodec.PLAIN);
+        Path path = resolve(file);
+        try {
+            if (!codec.isCompressed()) {
+                return new MappedFileInputStream(path, offset, () -> { });
+            }
+            InputStream decoded = new DecompressingInputStream(new MappedFileInputStream(path, 0, () -> { }),
+                    codec, decompressionExecutor, (usedCodec, compressedBytes, inflatedBytes, nanos) -> { });
+            try {
+                decoded.skipNBytes(offset);
+            } catch (IOException e) {
+                decoded.close();
+                throw e;
+            }
+            return decoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open " + path + " at offset " + offset, e);
+        }
+    }
+
+    // A slice of the mapping from the first line starting at or after `start` to the first at or after `end`
+    @Override
+    public InputStream openRange(S3Service.S3FileInfo file, long start, long end) {
+        if (InputCodec.forKey(file.getKey()).orElse(InputCodec.PLAIN).isCompressed()) {
+            throw new IllegalArgumentException("Byte ranges of compressed file " + file.getKey()
+                    + " cannot be read independently");
+        }
+        Path path = resolve(file);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long from = lineStartAtOrAfter(channel, start);
+            long to = lineStartAtOrAfter(channel, end);
+            return new MappedFileInputStream(path, from, to, () -> { });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open range [" + start + ", " + end + ") of " + path, e);
+        }
+    }
+
+    private static long lineStartAtOrAfter(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+        if (position <= 0) {
+            return 0;
+        }
+        if (position >= size) {
+            return size;
+        }
+        // A line starts at `position` when the byte before it ends the previous line
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        long at = position - 1;
+        while (at < size) {
+            buffer.clear();
+            int read = channel.read(buffer, at);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return at + i + 1;
+                }
+            }
+            at += read;
+        }
+        return size;
+    }
+
+    private Path resolve(S3Service.S3FileInfo file) {
+        Path path = file.getKey().startsWith(keyPrefix) ? Path.of(URI.create(file.getKey())).normalize() : null;
+        if (path == null || !path.startsWith(root)) {
+            throw new IllegalArgumentException("Key " + file.getKey() + " is not a file under " + keyPrefix);
+        }
+        return path;
+    }
+
+    private S3Service.S3FileInfo fileInfo(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return S3Service.S3FileInfo.builder()
+                    .key(path.toUri().toString())
+                    .lastModified(attributes.lastModifiedTime().toInstant())
+                    .size(attributes.size())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read attributes of " + path, e);
+        }
+    }
+}
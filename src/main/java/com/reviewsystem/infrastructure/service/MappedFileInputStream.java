@@ -0,0 +1,117 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a local file, or the byte range [offset, end) of it, through read-only mappings of up to
+// SEGMENT_BYTES, so each read is a copy out of the page cache instead of a read() system call.
+// `onClose` runs once the stream is closed.
+class MappedFileInputStream extends InputStream implements MappedInput {
+
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final Runnable onClose;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long position;
+    private boolean closed;
+
+    MappedFileInputStream(Path path, long offset, Runnable onClose) throws IOException {
+        this(path, offset, Long.MAX_VALUE, onClose);
+    }
+
+    MappedFileInputStream(Path path, long offset, long end, Runnable onClose) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = Math.min(channel.size(), end);
+        this.position = Math.min(Math.max(0, offset), size);
+        this.onClose = onClose;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureMapped()) {
+            return -1;
+        }
+        position++;
+        return segment.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureMapped()) {
+            return -1;
+        }
+        int count = Math.min(length, segment.remaining());
+        segment.get(buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public ByteBuffer nextRegion() throws IOException {
+        if (!ensureMapped()) {
+            return null;
+        }
+        ByteBuffer region = segment.slice().asReadOnlyBuffer();
+        position += region.remaining();
+        segment.position(segment.limit());
+        return region;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        long skipped = Math.max(0, Math.min(n, size - position));
+        position += skipped;
+        if (segment != null && position - segmentStart <= segment.limit()) {
+            segment.position((int) (position - segmentStart));
+        } else {
+            segment = null;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            onClose.run();
+        }
+    }
+
+    private boolean ensureMapped() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (position >= size) {
+            return false;
+        }
+        if (segment == null || !segment.hasRemaining()) {
+            segmentStart = position;
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_BYTES, size - position));
+        }
+        return true;
+    }
+}
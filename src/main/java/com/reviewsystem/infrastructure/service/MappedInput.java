@@ -0,0 +1,12 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Input backed by memory-mapped file regions, which a reader can copy from in bulk instead of going
+// through read() and its bounds checks for each buffer
+public interface MappedInput {
+
+    // The next unread region, positioned at its first byte, or null at the end; it counts as consumed
+    ByteBuffer nextRegion() throws IOException;
+}
@@ -0,0 +1,248 @@
+package com.reviewsystem.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Local copies of S3 objects keyed by bucket, key and ETag, so a changed object is a different entry.
+// Least recently used copies are deleted beyond `maxBytes`; modification times carry the order across
+// restarts. Copies are checked against the listed size and, for single-part ETags, their MD5 (turn
+// verify-etag off for SSE-KMS buckets, whose ETags are not content digests); verify-reads re-hashes hits.
+@Component
+@Slf4j
+public class ObjectCache {
+
+    private static final String SUFFIX = ".obj";
+
+    private final String bucketName;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean verifyEtag;
+    private final boolean verifyReads;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    // Entry file name -> size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ObjectCache(MeterRegistry meterRegistry,
+                       @Value("${aws.s3.bucket}") String bucketName,
+                       @Value("${aws.s3.cache.enabled:false}") boolean enabled,
+                       @Value("${aws.s3.cache.directory:object-cache}") String directory,
+                       @Value("${aws.s3.cache.max-bytes:10737418240}") long maxBytes,
+                       @Value("${aws.s3.cache.verify-etag:true}") boolean verifyEtag,
+                       @Value("${aws.s3.cache.verify-reads:false}") boolean verifyReads) {
+        this.bucketName = bucketName;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxBytes = maxBytes;
+        this.verifyEtag = verifyEtag;
+        this.verifyReads = verifyReads;
+        this.hits = meterRegistry.counter("review.cache.reads", "result", "hit");
+        this.misses = meterRegistry.counter("review.cache.reads", "result", "miss");
+        this.rejected = meterRegistry.counter("review.cache.reads", "result", "rejected");
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean accepts(S3Service.S3FileInfo file) {
+        return enabled && file.getETag() != null && file.getSize() != null && file.getSize() <= maxBytes;
+    }
+
+    public synchronized boolean contains(S3Service.S3FileInfo file) {
+        return accepts(file) && entries.containsKey(entryName(file));
+    }
+
+    // Returns the cached copy, or null on a miss or when the copy fails verification (it is then dropped)
+    public Path get(S3Service.S3FileInfo file) {
+        String name = entryName(file);
+        synchronized (this) {
+            if (entries.get(name) == null) {
+                misses.increment();
+                return null;
+            }
+        }
+        Path path = directory.resolve(name);
+        try {
+            if (!verify(path, file)) {
+                log.warn("Cached copy of {} failed verification, downloading it again", file.getKey());
+                rejected.increment();
+                remove(name);
+                return null;
+            }
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.warn("Cached copy of {} is unreadable, downloading it again: {}", file.getKey(), e.getMessage());
+            remove(name);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return path;
+    }
+
+    // Copies `content` into the cache and returns the cached path; a copy whose size or single-part
+    // ETag does not match the listing is discarded with an IOException
+    public Path put(S3Service.S3FileInfo file, InputStream content) throws IOException {
+        String name = entryName(file);
+        Path target = directory.resolve(name);
+        Path partial = Files.createTempFile(directory, name, ".part");
+        try {
+            MessageDigest md5 = md5();
+            try (InputStream in = content;
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(partial), md5)) {
+                in.transferTo(out);
+            }
+            long size = Files.size(partial);
+            String expected = verifyEtag ? singlePartMd5(file.getETag()) : null;
+            String actual = HexFormat.of().formatHex(md5.digest());
+            if (size != file.getSize() || (expected != null && !expected.equals(actual))) {
+                rejected.increment();
+                throw new IOException("Downloaded copy of " + file.getKey()
+                        + " does not match its listed size or ETag");
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        add(name, file.getSize());
+        return target;
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private boolean verify(Path path, S3Service.S3FileInfo file) throws IOException {
+        if (Files.size(path) != file.getSize()) {
+            return false;
+        }
+        String expected = verifyEtag ? singlePartMd5(file.getETag()) : null;
+        if (!verifyReads || expected == null) {
+            return true;
+        }
+        MessageDigest md5 = md5();
+        try (InputStream in = new MappedFileInputStream(path, 0, () -> { })) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                md5.update(buffer, 0, read);
+            }
+        }
+        return expected.equals(HexFormat.of().formatHex(md5.digest()));
+    }
+
+    private void add(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        // A copy still being read stays readable after the unlink
+        evicted.forEach(this::delete);
+    }
+
+    private void remove(String name) {
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size == null) {
+                return;
+            }
+            totalBytes -= size;
+        }
+        delete(name);
+    }
+
+    private void delete(String name) {
+        try {
+            Files.deleteIfExists(directory.resolve(name));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached object {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> cached = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path path : files) {
+                    if (path.getFileName().toString().endsWith(".part")) {
+                        Files.deleteIfExists(path);
+                    } else if (path.getFileName().toString().endsWith(SUFFIX)) {
+                        cached.add(path);
+                    }
+                }
+            }
+            cached.sort(Comparator.comparing(ObjectCache::lastModified));
+            for (Path path : cached) {
+                add(path.getFileName().toString(), Files.size(path));
+            }
+            log.info("Object cache {} holds {} objects, {} bytes", directory, entries.size(), totalBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load object cache " + directory, e);
+        }
+    }
+
+    private String entryName(S3Service.S3FileInfo file) {
+        return FileNames.sha256Hex(bucketName, file.getKey(), file.getETag()) + SUFFIX;
+    }
+
+    // The ETag of a single-part upload is the MD5 of the content; multipart ETags ("...-N") are not
+    private static String singlePartMd5(String eTag) {
+        String value = eTag.replace("\"", "");
+        return value.length() == 32 && !value.contains("-") ? value.toLowerCase() : null;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.reviewsystem.infrastructure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// Expands prefix patterns into partitions with delimiter listings (glob segments, then up to
+// `partitionDepth` further levels), lists up to `window` partitions at once and emits one batch per
+// partition in key order, so the merged output sorts the same as a single ListObjectsV2 chain
+@Slf4j
+class PartitionedListing implements Iterator<List<S3Service.S3FileInfo>> {
+
+    private static final String DELIMITER = "/";
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final List<PrefixPattern> patterns;
+    private final int partitionDepth;
+    private final String startAfter;
+    private final Executor executor;
+    private final int window;
+    private final Deque<CompletableFuture<List<S3Service.S3FileInfo>>> inFlight = new ArrayDeque<>();
+    private List<Unit> units;
+    private int nextToSchedule;
+    private boolean closed;
+
+    PartitionedListing(S3Client s3Client, String bucket, List<PrefixPattern> patterns, int partitionDepth,
+                       String startAfter, Executor executor, int window) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.patterns = patterns;
+        this.partitionDepth = Math.max(0, partitionDepth);
+        this.startAfter = startAfter;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (units == null) {
+            // Discovery runs on first use, so the stream stays lazy like a paginator
+            units = merge(discover());
+            log.info("Listing {} partitions of {}, {} in flight", units.size(), patterns, window);
+            fillWindow();
+        }
+        return !inFlight.isEmpty();
+    }
+
+    @Override
+    public List<S3Service.S3FileInfo> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<S3Service.S3FileInfo> files = join(inFlight.poll());
+        fillWindow();
+        return files;
+    }
+
+    void close() {
+        closed = true;
+        inFlight.forEach(future -> future.cancel(true));
+        inFlight.clear();
+    }
+
+    private void fillWindow() {
+        while (inFlight.size() < window && nextToSchedule < units.size()) {
+            Unit unit = units.get(nextToSchedule++);
+            if (unit.object() != null) {
+                inFlight.add(CompletableFuture.completedFuture(accepts(unit, unit.key())
+                        ? List.of(S3Service.fileInfo(unit.object()))
+                        : List.of()));
+            } else {
+                inFlight.add(CompletableFuture.supplyAsync(() -> list(unit), executor));
+            }
+        }
+    }
+
+    private List<S3Service.S3FileInfo> list(Unit partition) {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(partition.key());
+        if (startAfter != null && startAfter.compareTo(partition.key()) > 0) {
+            request.startAfter(startAfter);
+        }
+        return s3Client.listObjectsV2Paginator(request.build()).contents().stream()
+                .filter(s3Object -> accepts(partition, s3Object.key()))
+                .map(S3Service::fileInfo)
+                .toList();
+    }
+
+    private boolean accepts(Unit unit, String key) {
+        if (InputCodec.forKey(key).isEmpty() || (startAfter != null && key.compareTo(startAfter) <= 0)) {
+            return false;
+        }
+        return unit.patterns().stream().anyMatch(pattern -> pattern.matches(key));
+    }
+
+    private List<Unit> discover() {
+        List<CompletableFuture<List<Unit>>> expansions = new ArrayList<>();
+        for (PrefixPattern pattern : patterns) {
+            expansions.add(expand("", pattern.pattern(), pattern, partitionDepth));
+        }
+        return join(all(expansions));
+    }
+
+    private CompletableFuture<List<Unit>> expand(String base, String remaining, PrefixPattern pattern, int depth) {
+        int wildcard = PrefixPattern.indexOfWildcard(remaining);
+        if (wildcard < 0) {
+            String prefix = base + remaining;
+            if (depth == 0 || !(prefix.isEmpty() || prefix.endsWith(DELIMITER))) {
+                return CompletableFuture.completedFuture(List.of(Unit.partition(prefix, pattern)));
+            }
+            return delimited(prefix).thenCompose(level -> {
+                List<CompletableFuture<List<Unit>>> children = new ArrayList<>();
+                level.contents().forEach(object -> children.add(
+                        CompletableFuture.completedFuture(List.of(Unit.object(object, pattern)))));
+                level.commonPrefixes().stream()
+                        .map(CommonPrefix::prefix)
+                        .filter(child -> !entirelyBeforeStart(child))
+                        .forEach(child -> children.add(expand(child, "", pattern, depth - 1)));
+                return all(children);
+            });
+        }
+
+        int segmentStart = remaining.lastIndexOf('/', wildcard) + 1;
+        int segmentEnd = remaining.indexOf('/', wildcard);
+        if (segmentEnd < 0) {
+            // A wildcard in the last segment is left to the key filter
+            return CompletableFuture.completedFuture(
+                    List.of(Unit.partition(base + remaining.substring(0, wildcard), pattern)));
+        }
+
+        String parent = base + remaining.substring(0, segmentStart);
+        String glob = remaining.substring(segmentStart, segmentEnd);
+        String rest = remaining.substring(segmentEnd + 1);
+        return delimited(parent).thenCompose(level -> all(level.commonPrefixes().stream()
+                .map(CommonPrefix::prefix)
+                .filter(child -> PrefixPattern.segmentMatches(glob,
+                        child.substring(parent.length(), child.length() - 1)))
+                .filter(child -> !entirelyBeforeStart(child))
+                .map(child -> expand(child, rest, pattern, depth))
+                .toList()));
+    }
+
+    private CompletableFuture<Level> delimited(String prefix) {
+        return CompletableFuture.supplyAsync(() -> {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .delimiter(DELIMITER)
+                    .build();
+            List<S3Object> contents = new ArrayList<>();
+            List<CommonPrefix> commonPrefixes = new ArrayList<>();
+            for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(request)) {
+                contents.addAll(page.contents());
+                commonPrefixes.addAll(page.commonPrefixes());
+            }
+            return new Level(contents, commonPrefixes);
+        }, executor);
+    }
+
+    // Every key under `prefix` sorts at or before startAfter, so the whole partition can be skipped
+    private boolean entirelyBeforeStart(String prefix) {
+        return startAfter != null && prefix.compareTo(startAfter) < 0 && !startAfter.startsWith(prefix);
+    }
+
+    // Sorts units by key and folds partitions (and objects) nested in an earlier partition into it;
+    // all keys under one prefix are contiguous in sort order, so checking the last partition is enough
+    private static List<Unit> merge(List<Unit> found) {
+        List<Unit> sorted = new ArrayList<>(found);
+        sorted.sort(Comparator.comparing(Unit::key).thenComparing(unit -> unit.object() != null));
+        List<Unit> merged = new ArrayList<>();
+        Unit enclosing = null;
+        for (Unit unit : sorted) {
+            Unit last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (enclosing != null && unit.key().startsWith(enclosing.key())) {
+                enclosing.patterns().addAll(unit.patterns());
+            } else if (last != null && last.object() != null && last.key().equals(unit.key())) {
+                last.patterns().addAll(unit.patterns());
+            } else {
+                merged.add(unit);
+                if (unit.object() == null) {
+                    enclosing = unit;
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static <T> CompletableFuture<List<T>> all(List<CompletableFuture<List<T>>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(done -> futures.stream()
+                        .flatMap(future -> future.join().stream())
+                        .toList());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Level(List<S3Object> contents, List<CommonPrefix> commonPrefixes) {
+    }
+
+    // A prefix to list, or an object found while discovering partitions; `object` is null for prefixes
+    private record Unit(String key, S3Object object, List<PrefixPattern> patterns) {
+
+        static Unit partition(String prefix, PrefixPattern pattern) {
+            return new Unit(prefix, null, new ArrayList<>(List.of(pattern)));
+        }
+
+        static Unit object(S3Object object, PrefixPattern pattern) {
+            return new Unit(object.key(), object, new ArrayList<>(List.of(pattern)));
+        }
+    }
+}
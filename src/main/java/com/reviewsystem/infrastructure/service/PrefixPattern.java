@@ -0,0 +1,79 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// One entry of aws.s3.prefix. '*' and '?' match within a single path segment, so
+// "daily-reviews/2025/*/" covers every month of 2025; the pattern matches keys by prefix.
+record PrefixPattern(String pattern, Pattern regex) {
+
+    static List<PrefixPattern> parse(String spec) {
+        List<PrefixPattern> patterns = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String pattern = entry.trim();
+            if (!pattern.isEmpty() || patterns.isEmpty()) {
+                patterns.add(of(pattern));
+            }
+        }
+        return patterns;
+    }
+
+    static PrefixPattern of(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                regex.append(Pattern.quote(pattern.substring(literalStart, i)));
+                regex.append(c == '*' ? "[^/]*" : "[^/]");
+                literalStart = i + 1;
+            }
+        }
+        regex.append(Pattern.quote(pattern.substring(literalStart)));
+        return new PrefixPattern(pattern, Pattern.compile(regex.toString()));
+    }
+
+    boolean hasWildcard() {
+        return indexOfWildcard(pattern) >= 0;
+    }
+
+    // Everything before the first wildcard, usable as a plain S3 prefix
+    String literalPrefix() {
+        int wildcard = indexOfWildcard(pattern);
+        return wildcard < 0 ? pattern : pattern.substring(0, wildcard);
+    }
+
+    boolean matches(String key) {
+        return regex.matcher(key).lookingAt();
+    }
+
+    // True if a single path segment (no slashes) matches a glob segment of this syntax
+    static boolean segmentMatches(String glob, String segment) {
+        return of(glob).regex.matcher(segment).matches();
+    }
+
+    static String commonPrefix(List<PrefixPattern> patterns) {
+        String common = patterns.get(0).literalPrefix();
+        for (PrefixPattern pattern : patterns) {
+            String literal = pattern.literalPrefix();
+            int length = 0;
+            while (length < common.length() && length < literal.length()
+                    && common.charAt(length) == literal.charAt(length)) {
+                length++;
+            }
+            common = common.substring(0, length);
+        }
+        return common;
+    }
+
+    static int indexOfWildcard(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
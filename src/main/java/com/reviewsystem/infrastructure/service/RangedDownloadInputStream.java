@@ -0,0 +1,108 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+// Serves line-aligned byte ranges in order while keeping up to `window` later ranges downloading.
+// Closing the stream stops parts still downloading: fetchers poll the closed flag between reads.
+class RangedDownloadInputStream extends InputStream {
+
+    private final List<S3Service.ByteRange> ranges;
+    private final RangeFetcher fetcher;
+    private final Executor executor;
+    private final int window;
+    private final Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>();
+    private int nextToSchedule;
+    private byte[] current = new byte[0];
+    private int position;
+    private volatile boolean closed;
+
+    RangedDownloadInputStream(List<S3Service.ByteRange> ranges, RangeFetcher fetcher,
+                              Executor executor, int window) {
+        this.ranges = ranges;
+        this.fetcher = fetcher;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+        fillWindow();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.forEach(future -> future.cancel(true));
+        inFlight.clear();
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (position >= current.length) {
+            CompletableFuture<byte[]> next = inFlight.poll();
+            if (next == null) {
+                return false;
+            }
+            try {
+                current = next.join();
+            } catch (CompletionException | CancellationException e) {
+                throw new IOException("Ranged download failed", e.getCause() != null ? e.getCause() : e);
+            }
+            position = 0;
+            fillWindow();
+        }
+        return true;
+    }
+
+    private void fillWindow() {
+        while (inFlight.size() < window && nextToSchedule < ranges.size()) {
+            S3Service.ByteRange range = ranges.get(nextToSchedule++);
+            inFlight.add(CompletableFuture.supplyAsync(() -> {
+                if (closed) {
+                    throw new CancellationException("Stream closed before range " + range + " started");
+                }
+                return fetcher.fetch(range, () -> closed);
+            }, executor));
+        }
+    }
+
+    @FunctionalInterface
+    interface RangeFetcher {
+        // Returns the range's bytes, giving up with a CancellationException once `cancelled` turns true
+        byte[] fetch(S3Service.ByteRange range, BooleanSupplier cancelled);
+    }
+}
@@ -0,0 +1,35 @@
+package com.reviewsystem.infrastructure.service;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Where review files are listed and read from: S3 (S3Service) or a local directory
+// (LocalDirectoryReviewSource), selected with app.source.type
+public interface ReviewSource {
+
+    // Identifies this listing for watermarks
+    String getPrefix();
+
+    // Every listed key starts with this. Keys are also the processed_files identity, so each source
+    // keeps its keys in its own namespace: bare object keys for S3, file: URIs for local files.
+    String getCommonPrefix();
+
+    // Files sorting after startAfter (all when null) in key order, a page at a time, fetched as consumed
+    Stream<List<S3Service.S3FileInfo>> listPages(String startAfter);
+
+    // Reads from `offset`, which must be 0 or the first byte of a line; for compressed files the offset
+    // counts decompressed bytes
+    InputStream open(S3Service.S3FileInfo file, long offset);
+
+    // Reads the lines that start inside [start, end) of an uncompressed file, so ranges parse independently
+    InputStream openRange(S3Service.S3FileInfo file, long start, long end);
+
+    // Hints the order files will be opened in
+    default void prefetch(List<S3Service.S3FileInfo> files) {
+    }
+
+    // Ends a run, dropping anything prefetched but not opened
+    default void discardPrefetched() {
+    }
+}
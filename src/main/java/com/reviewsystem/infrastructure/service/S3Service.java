@@ -1,26 +1,53 @@
 package com.reviewsystem.infrastructure.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
-public class S3Service {
+@ConditionalOnProperty(name = "app.source.type", havingValue = "s3", matchIfMissing = true)
+public class S3Service implements ReviewSource {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    // Read past the end of each aligned range, enough to finish the line straddling it in most cases
+    private static final long LINE_SLACK_BYTES = 64 * 1024;
 
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final Executor s3TransferExecutor;
+    private final Executor decompressionExecutor;
+    private final MeterRegistry meterRegistry;
+    private final DownloadSpool downloadSpool;
+    private final ObjectCache objectCache;
 
     @Value("${aws.s3.bucket}")
     private String bucketName;
@@ -28,65 +55,353 @@ public class S3Service {
     @Value("${aws.s3.prefix:daily-reviews/}")
     private String prefix;
 
-    public List<S3FileInfo> listJsonlFiles() {
-        List<S3FileInfo> files = new ArrayList<>();
-        
+    @Value("${aws.s3.listing.partition-depth:0}")
+    private int partitionDepth;
+
+    @Value("${aws.s3.listing.concurrency:8}")
+    private int listingConcurrency;
+
+    @Value("${aws.s3.client.read-ahead-bytes:8388608}")
+    private long readAheadBytes;
+
+    @Value("${aws.s3.ranged-download.enabled:false}")
+    private boolean rangedDownloadEnabled;
+
+    @Value("${aws.s3.ranged-download.threshold-bytes:67108864}")
+    private long rangedDownloadThreshold;
+
+    @Value("${aws.s3.ranged-download.part-size-bytes:8388608}")
+    private long rangePartSize;
+
+    @Value("${aws.s3.ranged-download.concurrency:4}")
+    private int rangeConcurrency;
+
+    public S3Service(S3Client s3Client,
+                     @Qualifier("s3TransferExecutor") Executor s3TransferExecutor,
+                     @Qualifier("decompressionExecutor") Executor decompressionExecutor,
+                     MeterRegistry meterRegistry,
+                     DownloadSpool downloadSpool,
+                     ObjectCache objectCache,
+                     Optional<S3AsyncClient> s3AsyncClient) {
+        this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient.orElse(null);
+        this.s3TransferExecutor = s3TransferExecutor;
+        this.decompressionExecutor = decompressionExecutor;
+        this.meterRegistry = meterRegistry;
+        this.downloadSpool = downloadSpool;
+        this.objectCache = objectCache;
+    }
+
+    @Override
+    public String getPrefix() {
+        return prefix;
+    }
+
+    // Longest literal prefix shared by every configured pattern; every listed key starts with it
+    @Override
+    public String getCommonPrefix() {
+        return PrefixPattern.commonPrefix(PrefixPattern.parse(prefix));
+    }
+
+    // One element per ListObjectsV2 page, fetched only as the stream is consumed, so files from the
+    // first page can be scheduled while the rest of the prefix is still being listed. Keys sort after
+    // startAfter (all keys when null); S3 skips the earlier ones server-side. Several prefixes, glob
+    // patterns or a partition depth switch to concurrent per-partition listing, one element per partition.
+    @Override
+    public Stream<List<S3FileInfo>> listPages(String startAfter) {
+        List<PrefixPattern> patterns = PrefixPattern.parse(prefix);
+        if (patterns.size() > 1 || patterns.get(0).hasWildcard() || partitionDepth > 0) {
+            PartitionedListing listing = new PartitionedListing(s3Client, bucketName, patterns, partitionDepth,
+                    startAfter, s3TransferExecutor, listingConcurrency);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(listing,
+                    Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(listing::close);
+        }
+
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .startAfter(startAfter)
+                .build();
+
+        return s3Client.listObjectsV2Paginator(request).stream()
+                .map(response -> response.contents().stream()
+                        .filter(s3Object -> InputCodec.forKey(s3Object.key()).isPresent())
+                        .map(S3Service::fileInfo)
+                        .toList());
+    }
+
+    static S3FileInfo fileInfo(S3Object s3Object) {
+        return S3FileInfo.builder()
+                .key(s3Object.key())
+                .lastModified(s3Object.lastModified())
+                .size(s3Object.size())
+                .eTag(s3Object.eTag())
+                .build();
+    }
+
+    // With the spool enabled, files are downloaded to local disk ahead of time and open reads the local copy
+    @Override
+    public void prefetch(List<S3FileInfo> files) {
+        downloadSpool.plan(files.stream().filter(file -> !objectCache.contains(file)).toList());
+    }
+
+    @Override
+    public void discardPrefetched() {
+        downloadSpool.clear();
+    }
+
+    // Opens the object from `offset`, which must be 0 or the first byte of a line. For compressed
+    // objects the offset counts decompressed bytes, so the object is read from the start and skipped.
+    @Override
+    public InputStream open(S3FileInfo fileInfo, long offset) {
+        InputCodec codec = InputCodec.forKey(fileInfo.getKey()).orElse(InputCodec.PLAIN);
+        if (objectCache.accepts(fileInfo)) {
+            Path cached = cachedCopy(fileInfo);
+            if (cached != null) {
+                return openLocal(fileInfo.getKey(), cached, codec, offset, () -> { });
+            }
+        }
+        Path spooled = downloadSpool.claim(fileInfo);
+        if (spooled != null) {
+            // The spooled copy is deleted when the returned stream is closed
+            return openLocal(fileInfo.getKey(), spooled, codec, offset,
+                    () -> downloadSpool.release(fileInfo.getKey()));
+        }
+        if (codec.isCompressed()) {
+            return openCompressed(fileInfo.getKey(), codec, offset);
+        }
+
+        Long size = fileInfo.getSize();
+        if (!rangedDownloadEnabled || size == null || size - offset < rangedDownloadThreshold) {
+            return openFrom(fileInfo.getKey(), offset);
+        }
+
+        List<ByteRange> ranges = planRanges(offset, size, rangePartSize);
+        log.info("Downloading {} ({} bytes from offset {}) as {} ranged GETs, {} in flight",
+                fileInfo.getKey(), size, offset, ranges.size(), rangeConcurrency);
+        return new RangedDownloadInputStream(ranges,
+                (range, cancelled) -> readAlignedRange(fileInfo.getKey(), range, cancelled),
+                s3TransferExecutor, rangeConcurrency);
+    }
+
+    // A cache miss fills the cache from the spooled copy or S3 before reading; null if that fails
+    private Path cachedCopy(S3FileInfo fileInfo) {
+        Path cached = objectCache.get(fileInfo);
+        if (cached != null) {
+            return cached;
+        }
+        Path spooled = downloadSpool.claim(fileInfo);
+        try {
+            InputStream source = spooled != null ? Files.newInputStream(spooled) : openFrom(fileInfo.getKey(), 0);
+            return objectCache.put(fileInfo, source);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to cache {}, reading it directly: {}", fileInfo.getKey(), e.getMessage());
+            return null;
+        } finally {
+            if (spooled != null) {
+                downloadSpool.release(fileInfo.getKey());
+            }
+        }
+    }
+
+    private InputStream openLocal(String key, Path path, InputCodec codec, long offset, Runnable onClose) {
+        InputStream mapped;
         try {
-            ListObjectsV2Request request = ListObjectsV2Request.builder()
+            mapped = new MappedFileInputStream(path, codec.isCompressed() ? 0 : offset, onClose);
+        } catch (IOException e) {
+            onClose.run();
+            throw new UncheckedIOException("Failed to open local copy of " + key, e);
+        }
+        return codec.isCompressed() ? decompress(key, mapped, codec, offset) : mapped;
+    }
+
+    private InputStream openCompressed(String key, InputCodec codec, long offset) {
+        return decompress(key, openFrom(key, 0), codec, offset);
+    }
+
+    private InputStream decompress(String key, InputStream compressed, InputCodec codec, long offset) {
+        InputStream decoded = new DecompressingInputStream(compressed, codec, decompressionExecutor,
+                (usedCodec, compressedBytes, inflatedBytes, nanos) ->
+                        recordDecompression(key, usedCodec, compressedBytes, inflatedBytes, nanos));
+        if (offset > 0) {
+            log.info("Resuming {} object {} by skipping {} decompressed bytes", codec.label(), key, offset);
+            try {
+                decoded.skipNBytes(offset);
+            } catch (IOException e) {
+                closeQuietly(decoded);
+                throw new UncheckedIOException("Failed to skip to offset " + offset + " of " + key, e);
+            }
+        }
+        return decoded;
+    }
+
+    private void recordDecompression(String key, InputCodec codec, long compressedBytes, long inflatedBytes,
+                                     long nanos) {
+        meterRegistry.counter("review.decompress.input.bytes", "codec", codec.label()).increment(compressedBytes);
+        meterRegistry.counter("review.decompress.output.bytes", "codec", codec.label()).increment(inflatedBytes);
+        meterRegistry.timer("review.decompress.time", "codec", codec.label()).record(nanos, TimeUnit.NANOSECONDS);
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+        log.info("Decompressed {} ({}): {} -> {} bytes (ratio {}) in {}ms, {} MB/s out",
+                key, codec.label(), compressedBytes, inflatedBytes,
+                compressedBytes > 0 ? String.format("%.1f", inflatedBytes / (double) compressedBytes) : "n/a",
+                millis, inflatedBytes / 1000 / millis);
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close stream: {}", e.getMessage());
+        }
+    }
+
+    private InputStream openFrom(String key, long offset) {
+        try {
+            GetObjectRequest.Builder request = GetObjectRequest.builder()
                     .bucket(bucketName)
-                    .prefix(prefix)
-                    .build();
+                    .key(key);
+            if (offset > 0) {
+                request.range("bytes=" + offset + "-");
+            }
+            if (s3AsyncClient != null) {
+                return openAsync(request.build());
+            }
+            return s3Client.getObject(request.build());
 
-            ListObjectsV2Response response;
-            do {
-                response = s3Client.listObjectsV2(request);
-                
-                for (S3Object s3Object : response.contents()) {
-                    if (s3Object.key().endsWith(".jl")) {
-                        files.add(S3FileInfo.builder()
-                                .key(s3Object.key())
-                                .lastModified(s3Object.lastModified())
-                                .size(s3Object.size())
-                                .build());
-                    }
-                }
-                
-                request = request.toBuilder()
-                        .continuationToken(response.nextContinuationToken())
-                        .build();
-                        
-            } while (response.isTruncated());
-            
-            log.info("Found {} .jl files in S3 bucket: {}", files.size(), bucketName);
-            return files;
-            
         } catch (Exception e) {
-            log.error("Failed to list files from S3", e);
-            throw new RuntimeException("Failed to list files from S3", e);
+            log.error("Failed to download file: {} from offset {}", key, offset, e);
+            throw new RuntimeException("Failed to download file: " + key, e);
         }
     }
 
-    public BufferedReader downloadFile(String key) {
-        try {
+    // In async mode a failed request surfaces as an IOException from the first read
+    private InputStream openAsync(GetObjectRequest request) {
+        AsyncDownloadInputStream stream = new AsyncDownloadInputStream(readAheadBytes);
+        s3AsyncClient.getObject(request, AsyncResponseTransformer.<GetObjectResponse>toPublisher())
+                .whenComplete((publisher, error) -> {
+                    if (error != null) {
+                        log.error("Failed to download file: {}", request.key(), error);
+                        stream.onError(error);
+                    } else {
+                        publisher.subscribe(stream);
+                    }
+                });
+        return stream;
+    }
+
+    public static List<ByteRange> planRanges(long size, long partSize) {
+        return planRanges(0, size, partSize);
+    }
+
+    public static List<ByteRange> planRanges(long from, long size, long partSize) {
+        long step = Math.max(1, partSize);
+        List<ByteRange> ranges = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, (size - from) / step + 1));
+        for (long start = from; start < size; start += step) {
+            ranges.add(new ByteRange(start, Math.min(size, start + step)));
+        }
+        return ranges;
+    }
+
+    @Override
+    public InputStream openRange(S3FileInfo fileInfo, long start, long end) {
+        if (InputCodec.forKey(fileInfo.getKey()).orElse(InputCodec.PLAIN).isCompressed()) {
+            throw new IllegalArgumentException("Byte ranges of compressed object " + fileInfo.getKey()
+                    + " cannot be read independently");
+        }
+        return new ByteArrayInputStream(readAlignedRange(fileInfo.getKey(), new ByteRange(start, end)));
+    }
+
+    // Returns the lines that start inside [start, end): a line straddling `start` belongs to the
+    // previous range and the line straddling `end` is read to completion, so ranges parse independently.
+    // A range starting right after a newline, such as a resume offset, begins with that line.
+    public byte[] readAlignedRange(String key, ByteRange range) {
+        return readAlignedRange(key, range, () -> false);
+    }
+
+    // Once `cancelled` reports true the response is aborted, releasing its connection without draining it.
+    // Each GET is bounded: the range plus LINE_SLACK_BYTES, so the line straddling `end` is normally
+    // complete in the same response and what is left of it is drained, keeping the connection reusable.
+    // A line running past that gets short follow-up GETs.
+    byte[] readAlignedRange(String key, ByteRange range, BooleanSupplier cancelled) {
+        long from = range.start() == 0 ? 0 : range.start() - 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                (int) Math.min(range.end() - range.start() + 4096, Integer.MAX_VALUE - 8));
+        byte[] buffer = new byte[READ_BUFFER_BYTES];
+        long position = from;
+        long last = range.end() - 1 + LINE_SLACK_BYTES;
+        boolean emitting = range.start() == 0;
+        boolean atLineStart = true;
+
+        while (true) {
             GetObjectRequest request = GetObjectRequest.builder()
                     .bucket(bucketName)
                     .key(key)
+                    .range("bytes=" + position + "-" + last)
                     .build();
 
-            ResponseInputStream<GetObjectResponse> response = s3Client.getObject(request);
-            return new BufferedReader(new InputStreamReader(response));
-            
-        } catch (Exception e) {
-            log.error("Failed to download file: {}", key, e);
-            throw new RuntimeException("Failed to download file: " + key, e);
+            try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    if (cancelled.getAsBoolean()) {
+                        in.abort();
+                        throw new CancellationException("Download of range " + range + " of " + key + " cancelled");
+                    }
+                    int index = 0;
+                    if (!emitting) {
+                        // Skip the tail of the line that began in the previous range
+                        while (index < read && buffer[index] != '\n') {
+                            index++;
+                        }
+                        if (index == read) {
+                            position += read;
+                            continue;
+                        }
+                        index++;
+                        emitting = true;
+                    }
+
+                    int emitFrom = index;
+                    for (; index < read; index++) {
+                        if (atLineStart && position + index >= range.end()) {
+                            out.write(buffer, emitFrom, index - emitFrom);
+                            return out.toByteArray();
+                        }
+                        atLineStart = buffer[index] == '\n';
+                    }
+                    out.write(buffer, emitFrom, read - emitFrom);
+                    position += read;
+                }
+                if (position <= last || position >= objectSize(in.response())) {
+                    return out.toByteArray();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read range " + range + " of " + key, e);
+            }
+            log.debug("Line at the end of range {} of {} runs past byte {}, reading on", range, key, last);
+            last = position + LINE_SLACK_BYTES - 1;
         }
     }
 
+    // Total size from a ranged response's "bytes first-last/size" Content-Range
+    private static long objectSize(GetObjectResponse response) {
+        String contentRange = response.contentRange();
+        int slash = contentRange != null ? contentRange.lastIndexOf('/') : -1;
+        if (slash < 0 || contentRange.endsWith("*")) {
+            return Long.MAX_VALUE;
+        }
+        return Long.parseLong(contentRange.substring(slash + 1));
+    }
+
+    public record ByteRange(long start, long end) {
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class S3FileInfo {
         private String key;
         private Instant lastModified;
         private Long size;
+        private String eTag;
     }
 }
@@ -0,0 +1,60 @@
+-- One-off upgrade for databases created before reviews referenced dimension tables.
+-- Run before starting the new version: ddl-auto=update adds tables and columns but never drops
+-- the old VARCHAR columns, and reviews.platform is NOT NULL there.
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS hotels (
+    id BIGINT PRIMARY KEY,
+    platform VARCHAR(50),
+    hotel_name VARCHAR(255),
+    updated_at TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_hotels_platform ON hotels (platform);
+
+CREATE TABLE IF NOT EXISTS countries (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_countries_name UNIQUE
+);
+CREATE TABLE IF NOT EXISTS room_types (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_room_types_name UNIQUE
+);
+CREATE TABLE IF NOT EXISTS review_groups (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL CONSTRAINT uk_review_groups_name UNIQUE
+);
+
+-- The most recently written name wins for each hotel
+INSERT INTO hotels (id, platform, hotel_name, updated_at)
+SELECT DISTINCT ON (hotel_id) hotel_id, platform, hotel_name, LOCALTIMESTAMP
+FROM reviews ORDER BY hotel_id, updated_at DESC NULLS LAST
+ON CONFLICT (id) DO NOTHING;
+
+INSERT INTO countries (name) SELECT DISTINCT reviewer_country FROM reviews
+WHERE reviewer_country IS NOT NULL ON CONFLICT (name) DO NOTHING;
+INSERT INTO room_types (name) SELECT DISTINCT room_type FROM reviews
+WHERE room_type IS NOT NULL ON CONFLICT (name) DO NOTHING;
+INSERT INTO review_groups (name) SELECT DISTINCT review_group_name FROM reviews
+WHERE review_group_name IS NOT NULL ON CONFLICT (name) DO NOTHING;
+
+ALTER TABLE reviews
+    ADD COLUMN IF NOT EXISTS reviewer_country_id INTEGER,
+    ADD COLUMN IF NOT EXISTS room_type_id INTEGER,
+    ADD COLUMN IF NOT EXISTS review_group_id INTEGER;
+
+UPDATE reviews r SET
+    reviewer_country_id = (SELECT c.id FROM countries c WHERE c.name = r.reviewer_country),
+    room_type_id = (SELECT t.id FROM room_types t WHERE t.name = r.room_type),
+    review_group_id = (SELECT g.id FROM review_groups g WHERE g.name = r.review_group_name);
+
+DROP INDEX IF EXISTS idx_platform;
+ALTER TABLE reviews
+    DROP COLUMN platform,
+    DROP COLUMN hotel_name,
+    DROP COLUMN reviewer_country,
+    DROP COLUMN room_type,
+    DROP COLUMN review_group_name;
+
+COMMIT;
+
+-- Rewrites every row once; reclaim the space afterwards with VACUUM FULL reviews (takes an exclusive lock)
@@ -0,0 +1,58 @@
+package com.reviewsystem.application.parser;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+// Microbenchmark for the review date fast path against the formatter it replaced. Not run by surefire;
+// after `mvn test-compile`, run with:
+//   java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+//       com.reviewsystem.application.parser.ReviewDateParserBenchmark
+public class ReviewDateParserBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int OPERATIONS = 1_000_000;
+
+    private static final String[] DATES = {
+            "2025-04-10T05:37:00+07:00", "2024-12-31T23:59:59-05:00", "2025-01-01T00:00:00Z",
+            "2023-06-15T12:30:45+05:30", "2025-02-28T08:01:02+00:00", "2022-11-05T17:45:10-08:00"
+    };
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        run("formatter (previous)", date -> LocalDateTime.parse(date, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        run("ReviewDateParser.parse", ReviewDateParser::parse);
+    }
+
+    private static void run(String name, Function<String, LocalDateTime> parser) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(parser);
+        }
+        long bestNanos = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long nanos = measure(parser);
+            bytes = allocatedBytes() - allocatedBefore;
+            bestNanos = Math.min(bestNanos, nanos);
+        }
+        System.out.printf("%-24s %8.1f ns/op %8.1f B/op%n", name,
+                (double) bestNanos / OPERATIONS, (double) bytes / OPERATIONS);
+    }
+
+    private static long measure(Function<String, LocalDateTime> parser) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink = parser.apply(DATES[i % DATES.length]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,51 @@
+package com.reviewsystem.application.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewDateParserTest {
+
+    @Test
+    void testParse_FixedLayoutMatchesFormatter() {
+        // Given
+        List<String> inputs = List.of(
+                "2025-04-10T05:37:00+07:00", "2025-04-10T05:37:00-03:30", "2025-04-10T05:37:00Z",
+                "2024-02-29T23:59:59+18:00", "0001-01-01T00:00:00+00:00");
+
+        for (String input : inputs) {
+            // When
+            LocalDateTime fast = ReviewDateParser.parseFixedLayout(input);
+
+            // Then
+            assertEquals(LocalDateTime.parse(input, DateTimeFormatter.ISO_OFFSET_DATE_TIME), fast, input);
+        }
+    }
+
+    @Test
+    void testParse_OtherLayoutsFallBackToFormatter() {
+        // Given
+        String fraction = "2025-04-10T05:37:00.123+07:00";
+        String secondsOffset = "2025-04-10T05:37:00+07:00:30";
+
+        // Then
+        assertNull(ReviewDateParser.parseFixedLayout(fraction));
+        assertEquals(LocalDateTime.of(2025, 4, 10, 5, 37, 0, 123_000_000), ReviewDateParser.parse(fraction));
+        assertEquals(LocalDateTime.of(2025, 4, 10, 5, 37), ReviewDateParser.parse(secondsOffset));
+    }
+
+    @Test
+    void testParse_InvalidDatesReturnNull() {
+        // Then
+        assertNull(ReviewDateParser.parse("2025-02-30T05:37:00+07:00"));
+        assertNull(ReviewDateParser.parse("2025-04-10T24:00:00+07:00"));
+        assertNull(ReviewDateParser.parse("2025-04-10T05:37:00+19:00"));
+        assertNull(ReviewDateParser.parse("2025-04-10T05:37:00"));
+        assertNull(ReviewDateParser.parse("2025-04-1OT05:37:00+07:00"));
+        assertNull(ReviewDateParser.parse(null));
+    }
+}
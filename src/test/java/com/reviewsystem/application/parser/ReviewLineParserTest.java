@@ -0,0 +1,105 @@
+package com.reviewsystem.application.parser;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewLineParserTest {
+
+    private static final String LINE = "{\"hotelId\":10984,\"platform\":\"Agoda\",\"hotelName\":\"Oscar Saigon Hotel\","
+            + "\"unused\":{\"nested\":[1,2,{\"deep\":true}]},"
+            + "\"comment\":{\"isShowReviewResponse\":false,\"hotelReviewId\":948353737,\"providerId\":332,"
+            + "\"rating\":6.4,\"checkInDateMonthAndYear\":\"April 2025\",\"reviewTitle\":\"Perfect location\","
+            + "\"reviewComments\":\"Hotel room is \\\"basic\\\"\",\"reviewDate\":\"2025-04-10T05:37:00+07:00\","
+            + "\"translateSource\":\"en\",\"translateTarget\":\"en\","
+            + "\"reviewerInfo\":{\"countryName\":\"India\",\"displayMemberName\":\"John Doe\","
+            + "\"reviewGroupName\":\"Couple\",\"roomTypeName\":\"Deluxe\",\"lengthOfStay\":2}},"
+            + "\"overallByProviders\":[{\"providerId\":332,\"provider\":\"Agoda\",\"overallScore\":7.9,"
+            + "\"reviewCount\":7070,\"grades\":{\"Cleanliness\":7.7,\"Location\":8.9}}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final StringDictionary dictionary = new StringDictionary(1000, new SimpleMeterRegistry());
+
+    private final ReviewLineParser streaming = new StreamingReviewLineParser(objectMapper, dictionary);
+    private final ReviewLineParser databind = new DatabindReviewLineParser(objectMapper, dictionary);
+
+    @Test
+    void testParse_StreamingMatchesDatabind() throws IOException {
+        // When
+        ParsedReview expected = databind.parse(LINE, "file.jl");
+        ParsedReview actual = streaming.parse(LINE, "file.jl");
+
+        // Then
+        assertEquals(expected, actual);
+        Review review = actual.getReview();
+        assertEquals("948353737", review.getReviewId());
+        assertEquals("Hotel room is \"basic\"", review.getReviewComments());
+        assertEquals(LocalDateTime.of(2025, 4, 10, 5, 37), review.getReviewDate());
+        assertEquals(2, review.getLengthOfStay());
+        assertEquals("file.jl", review.getSourceFile());
+
+        OverallRating rating = actual.getOverallRatings().get(0);
+        assertEquals(10984L, rating.getHotelId());
+        assertEquals(Map.of("Cleanliness", 7.7, "Location", 8.9), rating.getGrades());
+    }
+
+    @Test
+    void testParse_ContentHashTracksEditableFields() throws IOException {
+        // Given
+        String sameContentLaterDump = LINE.replace("Oscar Saigon Hotel", "Oscar Hotel");
+        String editedComment = LINE.replace("Hotel room is", "Hotel room was");
+
+        // When
+        Long original = streaming.parse(LINE, "file.jl").getReview().getContentHash();
+        Long unchanged = streaming.parse(sameContentLaterDump, "next-day.jl").getReview().getContentHash();
+        Long edited = streaming.parse(editedComment, "file.jl").getReview().getContentHash();
+
+        // Then
+        assertNotNull(original);
+        assertEquals(original, unchanged);
+        assertNotEquals(original, edited);
+    }
+
+    @Test
+    void testParse_LowCardinalityFieldsShareInstances() throws IOException {
+        // When
+        Review first = streaming.parse(LINE, "file.jl").getReview();
+        ParsedReview second = streaming.parse(LINE.replace("948353737", "948353738"), "file.jl");
+        Review third = databind.parse(LINE, "file.jl").getReview();
+
+        // Then
+        assertSame(first.getHotelName(), second.getReview().getHotelName());
+        assertSame(first.getReviewerCountry(), third.getReviewerCountry());
+        assertSame(first.getRoomType(), third.getRoomType());
+        assertNotSame(first.getReviewComments(), second.getReview().getReviewComments());
+        String gradeName = second.getOverallRatings().get(0).getGrades().keySet().iterator().next();
+        assertSame(dictionary.canonical("Cleanliness"), gradeName);
+    }
+
+    @Test
+    void testParse_MissingRequiredFieldsIsInvalid() throws IOException {
+        String line = "{\"hotelId\":1,\"comment\":{\"providerId\":332}}";
+
+        assertNull(databind.parse(line, "file.jl"));
+        assertNull(streaming.parse(line, "file.jl"));
+        assertNull(streaming.parse("{\"hotelId\":1,\"comment\":null}", "file.jl"));
+    }
+
+    @Test
+    void testParse_MalformedLineThrows() {
+        assertThrows(IOException.class, () -> streaming.parse("{ invalid json }", "file.jl"));
+        assertThrows(IOException.class, () -> streaming.parse("{\"hotelId\":{\"a\":1}}", "file.jl"));
+        assertThrows(IOException.class, () -> databind.parse("{ invalid json }", "file.jl"));
+    }
+}
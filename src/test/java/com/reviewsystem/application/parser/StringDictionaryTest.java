@@ -0,0 +1,57 @@
+package com.reviewsystem.application.parser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testCanonical_ReturnsFirstInstanceAndCountsHits() {
+        // Given
+        StringDictionary dictionary = new StringDictionary(10, meterRegistry);
+        String first = new String("Deluxe Room");
+        String second = new String("Deluxe Room");
+
+        // When
+        String canonicalFirst = dictionary.canonical(first);
+        String canonicalSecond = dictionary.canonical(second);
+
+        // Then
+        assertSame(first, canonicalFirst);
+        assertSame(first, canonicalSecond);
+        assertNull(dictionary.canonical(null));
+        assertEquals(1.0, lookups("hit"));
+        assertEquals(1.0, lookups("miss"));
+        assertEquals(1.0, meterRegistry.get("review.dictionary.size").gauge().value());
+    }
+
+    @Test
+    void testCanonical_StopsGrowingWhenFullUntilCleared() {
+        // Given
+        StringDictionary dictionary = new StringDictionary(2, meterRegistry);
+        dictionary.canonical("India");
+        dictionary.canonical("Japan");
+        String overflow = new String("Vietnam");
+
+        // When
+        String returned = dictionary.canonical(overflow);
+        dictionary.canonical(new String("Vietnam"));
+
+        // Then
+        assertSame(overflow, returned);
+        assertEquals(2, dictionary.size());
+        assertEquals(2.0, lookups("overflow"));
+
+        dictionary.clear();
+        assertEquals(0, dictionary.size());
+        assertSame(overflow, dictionary.canonical(overflow));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("review.dictionary.lookups").tag("result", result).counter().count();
+    }
+}
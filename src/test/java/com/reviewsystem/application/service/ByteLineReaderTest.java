@@ -0,0 +1,114 @@
+package com.reviewsystem.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteLineReaderTest {
+
+    @Test
+    void testIndexOf_MatchesByteLoopAtEveryAlignment() {
+        // Given
+        // Mostly bytes that differ from '\n' by one bit or one borrow, to catch false positives
+        byte[] nearMisses = {0x0B, 0x09, (byte) 0x8A, 0x00, 'a'};
+        Random random = new Random(42);
+        byte[] data = new byte[4096];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(20) == 0 ? (byte) '\n' : nearMisses[random.nextInt(nearMisses.length)];
+        }
+
+        for (int from = 0; from < 64; from++) {
+            for (int to = from; to < data.length; to += 37) {
+                // When
+                int found = NewlineScanner.indexOf(data, from, to);
+
+                // Then
+                int expected = -1;
+                for (int i = from; i < to; i++) {
+                    if (data[i] == '\n') {
+                        expected = i;
+                        break;
+                    }
+                }
+                assertEquals(expected, found, "from " + from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void testReadBlock_CarriesCutLinesAndGrowsForLongOnes() throws IOException {
+        // Given: a 16-byte buffer, a line longer than it and no trailing newline
+        String content = "é0\n1\r\n" + "x".repeat(40) + "\n\n4";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteLineReader reader = new ByteLineReader(new TrickleInputStream(bytes), 100);
+
+        // When
+        List<String> lines = new ArrayList<>();
+        List<Long> endOffsets = new ArrayList<>();
+        ByteLineReader.LineBlock block;
+        while ((block = reader.readBlock(2, new byte[16])) != null) {
+            for (int i = 0; i < block.lineCount(); i++) {
+                lines.add(new String(block.data(), block.starts()[i], block.ends()[i] - block.starts()[i],
+                        StandardCharsets.UTF_8));
+            }
+            endOffsets.add(block.endOffset());
+        }
+
+        // Then
+        assertEquals(List.of("é0", "1\r", "x".repeat(40), "", "4"), lines);
+        assertEquals(List.of(107L, 149L, 100L + bytes.length), endOffsets);
+        assertEquals(100L + bytes.length, reader.offset());
+    }
+
+    @Test
+    void testReadBlock_LinesPastTheLimitStartTheNextBlockInTheSameBuffer() throws IOException {
+        // Given: one read fills the buffer with more lines than a block takes
+        byte[] bytes = "a\nbb\nccc\ndddd\ne".getBytes(StandardCharsets.UTF_8);
+        ByteLineReader reader = new ByteLineReader(new ByteArrayInputStream(bytes), 0);
+        byte[] buffer = new byte[64];
+
+        // When
+        List<List<String>> blocks = new ArrayList<>();
+        ByteLineReader.LineBlock block;
+        while ((block = reader.readBlock(2, buffer)) != null) {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < block.lineCount(); i++) {
+                lines.add(new String(block.data(), block.starts()[i], block.ends()[i] - block.starts()[i],
+                        StandardCharsets.UTF_8));
+            }
+            blocks.add(lines);
+        }
+
+        // Then
+        assertEquals(List.of(List.of("a", "bb"), List.of("ccc", "dddd"), List.of("e")), blocks);
+        assertEquals(bytes.length, reader.offset());
+    }
+
+    // Returns at most three bytes per read, like a slow network stream
+    private static class TrickleInputStream extends InputStream {
+
+        private final ByteArrayInputStream in;
+
+        private TrickleInputStream(byte[] bytes) {
+            this.in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return in.read(buffer, offset, Math.min(3, length));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.reviewsystem.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDeadLetterSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrite_AppendsOneJsonLinePerRejectedLine() throws Exception {
+        // Given
+        FileDeadLetterSink sink = new FileDeadLetterSink(objectMapper, directory.toString());
+        String source = "daily-reviews/2025-01-01.jl";
+
+        // When
+        sink.write(List.of(new RejectedLine(source, 3, RejectedLine.REASON_INVALID, "{\"hotelId\": null}")));
+        sink.write(List.of(new RejectedLine(source, 9, "unparsable: boom", "{ invalid json }")));
+
+        // Then
+        Path written = Path.of(sink.location(source));
+        assertEquals(directory, written.getParent());
+        assertNotEquals(written, Path.of(sink.location("daily-reviews_2025-01-01.jl")));
+        List<String> lines = Files.readAllLines(written);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(source, first.get("file").asText());
+        assertEquals(3, first.get("line").asLong());
+        assertEquals("{\"hotelId\": null}", first.get("raw").asText());
+        assertEquals("{ invalid json }", objectMapper.readTree(lines.get(1)).get("raw").asText());
+    }
+
+    @Test
+    void testDiscardAfter_TruncatesLinesPastCheckpointAndPartialRecord() throws Exception {
+        // Given
+        FileDeadLetterSink sink = new FileDeadLetterSink(objectMapper, directory.toString());
+        String source = "daily-reviews/2025-01-01.jl";
+        sink.write(List.of(new RejectedLine(source, 3, RejectedLine.REASON_INVALID, "{}")));
+        sink.write(List.of(new RejectedLine(source, 12, RejectedLine.REASON_INVALID, "{}"),
+                new RejectedLine(source, 15, RejectedLine.REASON_INVALID, "{}")));
+        Path written = Path.of(sink.location(source));
+        Files.writeString(written, "{\"file\":\"" + source + "\",\"li", StandardOpenOption.APPEND);
+
+        // When
+        sink.discardAfter(source, 10);
+        sink.write(List.of(new RejectedLine(source, 12, RejectedLine.REASON_INVALID, "{}")));
+
+        // Then
+        List<String> lines = Files.readAllLines(written);
+        assertEquals(2, lines.size());
+        assertEquals(3, objectMapper.readTree(lines.get(0)).get("line").asLong());
+        assertEquals(12, objectMapper.readTree(lines.get(1)).get("line").asLong());
+    }
+
+    @Test
+    void testDiscardAfter_WithoutFile_DoesNothing() {
+        // Given
+        FileDeadLetterSink sink = new FileDeadLetterSink(objectMapper, directory.toString());
+
+        // When
+        sink.discardAfter("daily-reviews/2025-01-02.jl", 0);
+
+        // Then
+        assertFalse(Files.exists(Path.of(sink.location("daily-reviews/2025-01-02.jl"))));
+    }
+}
@@ -0,0 +1,222 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.service.S3Service;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProcessingEngineTest {
+
+    private ExecutorService executor;
+    private FileProcessingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        engine = new FileProcessingEngine(executor, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "maxConcurrency", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testProcessFiles_RunsOnExecutorInParallel() {
+        // Given
+        List<S3Service.S3FileInfo> files = files(3);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        engine.processFiles(files, file -> {
+            threads.add(Thread.currentThread().getName());
+            allStarted.countDown();
+            try {
+                // Only completes if all three files are running at the same time
+                assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return success(file);
+        }, results::add);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(3, threads.size());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testProcessFiles_BoundsInFlightAndReportsFailures() {
+        // Given
+        List<S3Service.S3FileInfo> files = files(20);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        engine.processFiles(files, file -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (file.getKey().equals("file7.jl")) {
+                    throw new IllegalStateException("boom");
+                }
+                return success(file);
+            } finally {
+                running.decrementAndGet();
+            }
+        }, results::add);
+
+        // Then
+        assertEquals(20, results.size());
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(19, results.stream().filter(ReviewProcessingService.ProcessingResult::isSuccess).count());
+    }
+
+    @Test
+    void testProcessFiles_StartsLargestFilesFirstAndAdmitsAll() {
+        // Given
+        ReflectionTestUtils.setField(engine, "maxConcurrency", 1);
+        List<S3Service.S3FileInfo> files = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            files.add(S3Service.S3FileInfo.builder().key("file" + i + ".jl").size((long) (i * 7919 % 250)).build());
+        }
+        files.add(S3Service.S3FileInfo.builder().key("unknown.jl").build());
+        List<Long> startedSizes = new ArrayList<>();
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        engine.processFiles(files, file -> {
+            startedSizes.add(file.getSize() == null ? -1L : file.getSize());
+            return success(file);
+        }, results::add);
+
+        // Then
+        assertEquals(251, results.size());
+        assertEquals(249L, startedSizes.get(0));
+        assertEquals(-1L, startedSizes.get(startedSizes.size() - 1));
+        for (int i = 1; i < startedSizes.size() - 1; i++) {
+            assertTrue(startedSizes.get(i - 1) >= startedSizes.get(i));
+        }
+        assertEquals(0, engine.getQueuedFiles());
+        assertEquals(0, engine.getActiveFiles());
+    }
+
+    @Test
+    void testProcessFiles_StartsBeforeLaterBatchesArrive() {
+        // Given: the second batch is only released once a file from the first one is running
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        List<S3Service.S3FileInfo> first = files(1);
+        List<S3Service.S3FileInfo> second = List.of(S3Service.S3FileInfo.builder().key("late.jl").size(5L).build());
+        Iterator<List<S3Service.S3FileInfo>> batches = new Iterator<>() {
+            private int served;
+
+            @Override
+            public boolean hasNext() {
+                return served < 2;
+            }
+
+            @Override
+            public List<S3Service.S3FileInfo> next() {
+                if (served++ == 0) {
+                    return first;
+                }
+                try {
+                    assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return second;
+            }
+        };
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        engine.processFiles(batches, file -> {
+            firstStarted.countDown();
+            return success(file);
+        }, results::add);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(0, engine.getQueuedFiles());
+    }
+
+    @Test
+    void testProcessFiles_ErrorFailsOnlyItsFileAndWorkerContinues() {
+        // Given
+        ReflectionTestUtils.setField(engine, "maxConcurrency", 1);
+        List<S3Service.S3FileInfo> files = files(3);
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        engine.processFiles(files, file -> {
+            if (file.getKey().equals("file1.jl")) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+            return success(file);
+        }, results::add);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(List.of("file1.jl"), results.stream().filter(result -> !result.isSuccess())
+                .map(ReviewProcessingService.ProcessingResult::getFilename).toList());
+    }
+
+    @Test
+    void testProcessFiles_InterruptedWorkerFailsQueuedFilesInsteadOfHanging() {
+        // Given: the only worker is interrupted while processing its first file
+        ReflectionTestUtils.setField(engine, "maxConcurrency", 1);
+        List<S3Service.S3FileInfo> files = files(4);
+
+        // When
+        List<ReviewProcessingService.ProcessingResult> results = new ArrayList<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> engine.processFiles(files, file -> {
+            Thread.currentThread().interrupt();
+            return success(file);
+        }, results::add));
+
+        // Then
+        assertEquals(4, results.size());
+        assertEquals(1, results.stream().filter(ReviewProcessingService.ProcessingResult::isSuccess).count());
+        assertEquals(0, engine.getQueuedFiles());
+    }
+
+    private static List<S3Service.S3FileInfo> files(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> S3Service.S3FileInfo.builder()
+                        .key("file" + i + ".jl")
+                        .lastModified(Instant.now())
+                        .size(100L)
+                        .build())
+                .toList();
+    }
+
+    private static ReviewProcessingService.ProcessingResult success(S3Service.S3FileInfo file) {
+        return ReviewProcessingService.ProcessingResult.builder()
+                .filename(file.getKey())
+                .success(true)
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.application.parser.ParsedReview;
+import com.reviewsystem.application.parser.ReviewLineParser;
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.service.LocalDirectoryReviewSource;
+import com.reviewsystem.infrastructure.service.S3Service;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionPipelineTest {
+
+    private ExecutorService readerExecutor;
+    private ExecutorService parserExecutor;
+
+    @BeforeEach
+    void setUp() {
+        readerExecutor = Executors.newCachedThreadPool();
+        parserExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readerExecutor.shutdownNow();
+        parserExecutor.shutdownNow();
+    }
+
+    @Test
+    void testRun_DeliversBlocksInFileOrderWhileParsingInParallel() {
+        // Given: a parser with random latency so blocks finish out of order
+        Function<String, ParsedReview> slowParser = line -> {
+            sleepMillis(ThreadLocalRandom.current().nextInt(3));
+            return line.startsWith("bad") ? null : parsed(line);
+        };
+        IngestionPipeline pipeline = pipeline(slowParser, 7, 2);
+        String content = IntStream.range(0, 500)
+                .mapToObj(i -> i % 50 == 0 ? "bad" + i : String.valueOf(i))
+                .collect(Collectors.joining("\n"));
+
+        // When
+        List<String> reviewIds = new ArrayList<>();
+        try (IngestionPipeline.Run run = pipeline.start(reader(content), "file.jl")) {
+            IngestionPipeline.ParsedBlock block;
+            while ((block = run.next()) != null) {
+                block.getRecords().forEach(record -> reviewIds.add(record.getReview().getReviewId()));
+            }
+            assertEquals(72, run.stats().getBlocks());
+        }
+
+        // Then
+        List<String> expected = IntStream.range(0, 500)
+                .filter(i -> i % 50 != 0)
+                .mapToObj(String::valueOf)
+                .toList();
+        assertEquals(expected, reviewIds);
+    }
+
+    @Test
+    @Timeout(10)
+    void testRun_CloseStopsReaderWhenWriterGivesUp() {
+        // Given
+        IngestionPipeline pipeline = pipeline(IngestionPipelineTest::parsed, 1, 1);
+        String content = IntStream.range(0, 10_000).mapToObj(String::valueOf).collect(Collectors.joining("\n"));
+
+        // When
+        IngestionPipeline.Run run = pipeline.start(reader(content), "file.jl");
+        assertNotNull(run.next());
+        run.close();
+
+        // Then: close returned without the writer draining the file
+        assertEquals(1, run.stats().getBlocks());
+    }
+
+    @Test
+    void testRun_ResumesFromCommittedOffsetWithLineNumbers() {
+        // Given
+        IngestionPipeline pipeline = pipeline(IngestionPipelineTest::parsed, 2, 2);
+        String content = "é0\n1\r\n2\n\n4";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        // When: the first two lines (4 + 3 bytes) were committed by an earlier run
+        List<IngestionPipeline.ParsedBlock> blocks = new ArrayList<>();
+        InputStream tail = new ByteArrayInputStream(bytes, 7, bytes.length - 7);
+        try (IngestionPipeline.Run run = pipeline.start(tail, "file.jl", 7, 2)) {
+            IngestionPipeline.ParsedBlock block;
+            while ((block = run.next()) != null) {
+                blocks.add(block);
+            }
+        }
+
+        // Then
+        assertEquals(2, blocks.size());
+        assertEquals("2", blocks.get(0).getRecords().get(0).getReview().getReviewId());
+        assertEquals(10, blocks.get(0).getEndOffset());
+        assertEquals(4, blocks.get(0).getEndLine());
+        assertEquals("4", blocks.get(1).getRecords().get(0).getReview().getReviewId());
+        assertEquals(bytes.length, blocks.get(1).getEndOffset());
+        assertEquals(5, blocks.get(1).getEndLine());
+    }
+
+    @Test
+    void testRun_SplitsMappedLocalFileInPlaceFromCommittedOffset(@TempDir Path directory) throws IOException {
+        // Given
+        IngestionPipeline pipeline = pipeline(IngestionPipelineTest::parsed, 2, 2);
+        byte[] bytes = "é0\n1\r\n2\n\n4".getBytes(StandardCharsets.UTF_8);
+        Files.write(directory.resolve("file.jl"), bytes);
+        LocalDirectoryReviewSource source = new LocalDirectoryReviewSource(directory.toString(), Runnable::run);
+        S3Service.S3FileInfo file = S3Service.S3FileInfo.builder()
+                .key(directory.resolve("file.jl").toUri().toString())
+                .size((long) bytes.length)
+                .build();
+
+        // When
+        List<IngestionPipeline.ParsedBlock> blocks = new ArrayList<>();
+        try (InputStream mapped = source.open(file, 7);
+             IngestionPipeline.Run run = pipeline.start(mapped, "file.jl", 7, 2)) {
+            IngestionPipeline.ParsedBlock block;
+            while ((block = run.next()) != null) {
+                blocks.add(block);
+            }
+        }
+
+        // Then
+        assertEquals(List.of("2", "4"), blocks.stream()
+                .map(block -> block.getRecords().get(0).getReview().getReviewId())
+                .toList());
+        assertEquals(10, blocks.get(0).getEndOffset());
+        assertEquals(bytes.length, blocks.get(1).getEndOffset());
+        assertEquals(5, blocks.get(1).getEndLine());
+    }
+
+    private IngestionPipeline pipeline(Function<String, ParsedReview> parse, int blockLines, int queueDepth) {
+        ReviewLineParser parser = (data, offset, length, sourceFile) ->
+                parse.apply(new String(data, offset, length, StandardCharsets.UTF_8));
+        IngestionPipeline pipeline = new IngestionPipeline(parser, readerExecutor, parserExecutor);
+        ReflectionTestUtils.setField(pipeline, "blockLines", blockLines);
+        ReflectionTestUtils.setField(pipeline, "queueDepth", queueDepth);
+        return pipeline;
+    }
+
+    private static InputStream reader(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ParsedReview parsed(String reviewId) {
+        return new ParsedReview(Review.builder().reviewId(reviewId).build(), List.of());
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.reviewsystem.application.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+// Microbenchmark for splitting a JSON-lines file into parser input: the previous BufferedReader path
+// (decode to chars, readLine, trim) against ByteLineReader's byte slices. Not run by surefire; after
+// `mvn test-compile`, run with:
+//   java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+//       com.reviewsystem.application.service.LineSplittingBenchmark
+public class LineSplittingBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int LINES = 100_000;
+    private static final int BLOCK_LINES = 500;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            content.append("{\"hotelId\":").append(10984 + i % 97)
+                    .append(",\"platform\":\"Agoda\",\"hotelName\":\"Oscar Saigon Hotel\"")
+                    .append(",\"comment\":{\"hotelReviewId\":")
+                    .append(948353737L + i)
+                    .append(",\"providerId\":332,\"rating\":6.4,\"reviewComments\":\"")
+                    .append("Hotel room is basic and very small, not much like pictures. Café nearby was great. "
+                            .repeat(4))
+                    .append("\",\"reviewDate\":\"2025-04-10T05:37:00+07:00\"}}\n");
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        run("BufferedReader (previous)", bytes, LineSplittingBenchmark::readerLines);
+        run("ByteLineReader", bytes, LineSplittingBenchmark::byteSlices);
+    }
+
+    private static long readerLines(byte[] bytes) throws IOException {
+        long total = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                total += line.trim().length();
+            }
+        }
+        return total;
+    }
+
+    private static long byteSlices(byte[] bytes) throws IOException {
+        long total = 0;
+        ByteLineReader reader = new ByteLineReader(new ByteArrayInputStream(bytes), 0);
+        byte[] buffer = new byte[1024 * 1024];
+        ByteLineReader.LineBlock block;
+        while ((block = reader.readBlock(BLOCK_LINES, buffer)) != null) {
+            for (int i = 0; i < block.lineCount(); i++) {
+                total += block.ends()[i] - block.starts()[i];
+            }
+            buffer = block.data();
+        }
+        return total;
+    }
+
+    private static void run(String name, byte[] bytes, Splitter splitter) throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink = splitter.split(bytes);
+        }
+        long bestNanos = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            sink = splitter.split(bytes);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            allocated = allocatedBytes() - allocatedBefore;
+        }
+        System.out.printf("%-26s %8.1f ns/line %8.1f B/line %8.0f MB/s%n", name,
+                (double) bestNanos / LINES, (double) allocated / LINES, bytes.length * 1000.0 / bestNanos);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @FunctionalInterface
+    private interface Splitter {
+        long split(byte[] bytes) throws IOException;
+    }
+}
@@ -0,0 +1,42 @@
+package com.reviewsystem.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingProgressTest {
+
+    @Test
+    void testWatermark_StopsBeforeFirstIncompleteKey() {
+        // Given
+        ListingProgress listing = new ListingProgress();
+        listing.listed("daily/2025-01-05.jl", true);
+        listing.listed("daily/2025-01-06.jl", false);
+        listing.listed("daily/2025-01-07.jl", false);
+        listing.listed("daily/2025-01-08.jl", true);
+
+        // When
+        listing.completed("daily/2025-01-07.jl");
+
+        // Then
+        assertEquals("daily/2025-01-05.jl", listing.watermark());
+        listing.completed("daily/2025-01-06.jl");
+        assertEquals("daily/2025-01-08.jl", listing.watermark());
+        assertEquals(4, listing.getListedCount());
+        assertEquals(2, listing.getNewCount());
+    }
+
+    @Test
+    void testWatermark_NullWhenFirstKeyIsIncomplete() {
+        // Given
+        ListingProgress listing = new ListingProgress();
+
+        // When
+        listing.listed("daily/2025-01-05.jl", false);
+        listing.listed("daily/2025-01-06.jl", true);
+
+        // Then
+        assertNull(listing.watermark());
+        assertNull(new ListingProgress().watermark());
+    }
+}
@@ -0,0 +1,84 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.ListingWatermark;
+import com.reviewsystem.infrastructure.repository.ListingWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListingWatermarkTrackerTest {
+
+    @Mock
+    private ListingWatermarkRepository watermarkRepository;
+
+    @InjectMocks
+    private ListingWatermarkTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tracker, "incremental", true);
+        ReflectionTestUtils.setField(tracker, "lookbackHours", 48L);
+    }
+
+    @Test
+    void testStartAfter_UsesWatermarkFromOneWindowAgo() {
+        // Given
+        when(watermarkRepository.findFirstByPrefixAndRecordedAtLessThanEqualOrderByRecordedAtDesc(
+                eq("daily/"), argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusHours(47)))))
+                .thenReturn(Optional.of(watermark("daily/2025-01-03.jl", LocalDateTime.now().minusDays(3))));
+
+        // When
+        String startAfter = tracker.startAfter("daily/");
+
+        // Then
+        assertEquals("daily/2025-01-03.jl", startAfter);
+    }
+
+    @Test
+    void testAdvance_RecordsForwardMoveAndPrunesBehindWindow() {
+        // Given
+        LocalDateTime oldest = LocalDateTime.now().minusDays(3);
+        when(watermarkRepository.findFirstByPrefixOrderByRecordedAtDesc("daily/"))
+                .thenReturn(Optional.of(watermark("daily/2025-01-04.jl", LocalDateTime.now().minusDays(1))));
+        when(watermarkRepository.findFirstByPrefixAndRecordedAtLessThanEqualOrderByRecordedAtDesc(eq("daily/"), any()))
+                .thenReturn(Optional.of(watermark("daily/2025-01-02.jl", oldest)));
+
+        // When
+        tracker.advance("daily/", "daily/2025-01-06.jl");
+
+        // Then
+        verify(watermarkRepository).save(argThat(saved -> saved.getWatermarkKey().equals("daily/2025-01-06.jl")));
+        verify(watermarkRepository).deleteOlderThan("daily/", oldest);
+    }
+
+    @Test
+    void testAdvance_NeverMovesBackwards() {
+        // Given
+        when(watermarkRepository.findFirstByPrefixOrderByRecordedAtDesc("daily/"))
+                .thenReturn(Optional.of(watermark("daily/2025-01-09.jl", LocalDateTime.now())));
+
+        // When
+        tracker.advance("daily/", "daily/2025-01-08.jl");
+
+        // Then
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    private static ListingWatermark watermark(String key, LocalDateTime recordedAt) {
+        return ListingWatermark.builder().prefix("daily/").watermarkKey(key).recordedAt(recordedAt).build();
+    }
+}
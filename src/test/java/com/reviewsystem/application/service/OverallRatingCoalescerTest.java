@@ -0,0 +1,108 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverallRatingCoalescerTest {
+
+    @Mock
+    private ReviewBulkRepository reviewBulkRepository;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlush_KeepsLatestRatingPerHotelAndProvider() {
+        // Given
+        OverallRatingCoalescer coalescer = new OverallRatingCoalescer(reviewBulkRepository);
+        when(reviewBulkRepository.upsertOverallRatings(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        ArgumentCaptor<List<OverallRating>> captor = ArgumentCaptor.forClass(List.class);
+
+        // When
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+        coalescer.offer(rating(1L, 334L, 8.0, 4));
+        coalescer.offer(rating(1L, 332L, 7.5, 11));
+        int written = coalescer.flush();
+
+        // Then
+        verify(reviewBulkRepository).upsertOverallRatings(captor.capture());
+        assertEquals(2, written);
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().stream().anyMatch(r -> r.getProviderId() == 332L && r.getReviewCount() == 11));
+        assertEquals(0, coalescer.getPendingCount());
+    }
+
+    @Test
+    void testFlush_SkipsRatingsUnchangedSinceLastWrite() {
+        // Given
+        OverallRatingCoalescer coalescer = new OverallRatingCoalescer(reviewBulkRepository);
+        when(reviewBulkRepository.upsertOverallRatings(anyList())).thenReturn(1);
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+        coalescer.flush();
+
+        // When
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+        int written = coalescer.flush();
+
+        // Then
+        assertEquals(0, written);
+        verify(reviewBulkRepository, times(1)).upsertOverallRatings(anyList());
+    }
+
+    @Test
+    void testFlush_FailureKeepsRatingsPending() {
+        // Given
+        OverallRatingCoalescer coalescer = new OverallRatingCoalescer(reviewBulkRepository);
+        when(reviewBulkRepository.upsertOverallRatings(anyList()))
+                .thenThrow(new DataIntegrityViolationException("boom"))
+                .thenReturn(1);
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+
+        // When
+        assertThrows(DataIntegrityViolationException.class, coalescer::flush);
+
+        // Then
+        assertEquals(1, coalescer.getPendingCount());
+        assertEquals(1, coalescer.flush());
+    }
+
+    @Test
+    void testEndRun_ForgetsWrittenRatingsSoTheNextRunWritesThemAgain() {
+        // Given
+        OverallRatingCoalescer coalescer = new OverallRatingCoalescer(reviewBulkRepository);
+        when(reviewBulkRepository.upsertOverallRatings(anyList())).thenReturn(1);
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+        coalescer.endRun();
+
+        // When
+        coalescer.offer(rating(1L, 332L, 7.0, 10));
+        int written = coalescer.endRun();
+
+        // Then
+        assertEquals(1, written);
+        verify(reviewBulkRepository, times(2)).upsertOverallRatings(anyList());
+    }
+
+    private static OverallRating rating(Long hotelId, Long providerId, Double score, Integer count) {
+        return OverallRating.builder()
+                .hotelId(hotelId)
+                .providerId(providerId)
+                .provider("Agoda")
+                .overallScore(score)
+                .reviewCount(count)
+                .grades(Map.of("Cleanliness", score))
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewBatchWriterTest {
+
+    @Mock
+    private ReviewBulkRepository reviewBulkRepository;
+
+    @Test
+    void testWrite_FlushesWhenBatchIsFull() {
+        // Given
+        when(reviewBulkRepository.upsertReviews(anyList()))
+                .thenAnswer(inv -> new UpsertCounts(((List<?>) inv.getArgument(0)).size(), 0));
+        ReviewBatchWriter writer = new ReviewBatchWriter(reviewBulkRepository, 2);
+
+        // When
+        writer.write(review("1", 1L, 5.0));
+        writer.write(review("2", 1L, 6.0));
+        writer.write(review("3", 1L, 7.0));
+
+        // Then
+        verify(reviewBulkRepository, times(1)).upsertReviews(anyList());
+        writer.flush();
+        verify(reviewBulkRepository, times(2)).upsertReviews(anyList());
+        assertEquals(3, writer.getCounts().inserted());
+        assertEquals(0, writer.getRowsSkipped());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testWrite_LaterDuplicateReplacesEarlierInBatch() {
+        // Given
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(2, 0));
+        ReviewBatchWriter writer = new ReviewBatchWriter(reviewBulkRepository, 10);
+        ArgumentCaptor<List<Review>> captor = ArgumentCaptor.forClass(List.class);
+
+        // When
+        writer.write(review("1", 1L, 5.0));
+        writer.write(review("1", 2L, 6.0));
+        writer.write(review("1", 1L, 9.0));
+        writer.flush();
+
+        // Then
+        verify(reviewBulkRepository).upsertReviews(captor.capture());
+        List<Review> written = captor.getValue();
+        assertEquals(2, written.size());
+        assertEquals(9.0, written.get(0).getRating());
+    }
+
+    @Test
+    void testFlush_CountsUnchangedAndDuplicateRowsAsSkipped() {
+        // Given
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(1, 1));
+        ReviewBatchWriter writer = new ReviewBatchWriter(reviewBulkRepository, 10);
+
+        // When
+        writer.write(review("1", 1L, 5.0));
+        writer.write(review("1", 1L, 5.0));
+        writer.write(review("2", 1L, 6.0));
+        writer.write(review("3", 1L, 7.0));
+        writer.flush();
+
+        // Then
+        assertEquals(new UpsertCounts(1, 1), writer.getCounts());
+        assertEquals(2, writer.getRowsSkipped());
+    }
+
+    private static Review review(String reviewId, Long providerId, Double rating) {
+        return Review.builder()
+                .hotelId(1L)
+                .platform("Agoda")
+                .reviewId(reviewId)
+                .providerId(providerId)
+                .rating(rating)
+                .build();
+    }
+}
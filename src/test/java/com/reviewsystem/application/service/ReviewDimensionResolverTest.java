@@ -0,0 +1,69 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.domain.model.Review;
+import com.reviewsystem.infrastructure.repository.ReviewDimensionRepository;
+import com.reviewsystem.infrastructure.repository.ReviewDimensionRepository.Attribute;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewDimensionResolverTest {
+
+    @Mock
+    private ReviewDimensionRepository dimensionRepository;
+
+    @InjectMocks
+    private ReviewDimensionResolver resolver;
+
+    @Test
+    void testResolve_CachesKeysAfterFirstLookup() {
+        // Given
+        when(dimensionRepository.resolve(Attribute.COUNTRY, "India")).thenReturn(3);
+        when(dimensionRepository.resolve(Attribute.ROOM_TYPE, "Deluxe")).thenReturn(7);
+        Review first = review("Oscar Saigon Hotel");
+        Review second = review("Oscar Saigon Hotel");
+
+        // When
+        resolver.resolve(first);
+        resolver.resolve(second);
+
+        // Then
+        assertEquals(3, second.getReviewerCountryId());
+        assertEquals(7, second.getRoomTypeId());
+        assertNull(second.getReviewGroupId());
+        verify(dimensionRepository).resolve(Attribute.COUNTRY, "India");
+        verify(dimensionRepository).resolve(Attribute.ROOM_TYPE, "Deluxe");
+        verify(dimensionRepository, never()).resolve(eq(Attribute.REVIEW_GROUP), any());
+        verify(dimensionRepository).upsertHotel(10984L, "Agoda", "Oscar Saigon Hotel");
+    }
+
+    @Test
+    void testResolve_RewritesHotelWhenNameChanges() {
+        // Given
+        when(dimensionRepository.resolve(any(), any())).thenReturn(1);
+
+        // When
+        resolver.resolve(review("Oscar Saigon Hotel"));
+        resolver.resolve(review("Oscar Hotel"));
+
+        // Then
+        verify(dimensionRepository).upsertHotel(10984L, "Agoda", "Oscar Saigon Hotel");
+        verify(dimensionRepository).upsertHotel(10984L, "Agoda", "Oscar Hotel");
+    }
+
+    private static Review review(String hotelName) {
+        return Review.builder()
+                .hotelId(10984L)
+                .platform("Agoda")
+                .hotelName(hotelName)
+                .reviewerCountry("India")
+                .roomType("Deluxe")
+                .build();
+    }
+}
@@ -1,79 +1,129 @@
 package com.reviewsystem.application.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.reviewsystem.domain.dto.ReviewJsonDto;
-import com.reviewsystem.domain.model.Review;
-import com.reviewsystem.infrastructure.repository.OverallRatingRepository;
+import com.reviewsystem.application.parser.StreamingReviewLineParser;
+import com.reviewsystem.application.parser.StringDictionary;
+import com.reviewsystem.domain.model.ProcessedFile;
 import com.reviewsystem.infrastructure.repository.ProcessedFileRepository;
-import com.reviewsystem.infrastructure.repository.ReviewRepository;
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import com.reviewsystem.infrastructure.repository.UpsertCounts;
+import com.reviewsystem.infrastructure.service.ReviewSource;
 import com.reviewsystem.infrastructure.service.S3Service;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.StringReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewProcessingServiceTest {
 
     @Mock
-    private S3Service s3Service;
+    private ReviewSource reviewSource;
     
     @Mock
-    private ReviewRepository reviewRepository;
+    private ReviewBulkRepository reviewBulkRepository;
     
     @Mock
-    private OverallRatingRepository overallRatingRepository;
+    private ReviewWriterFactory reviewWriterFactory;
     
     @Mock
     private ProcessedFileRepository processedFileRepository;
 
+    @Mock
+    private FileProcessingEngine fileProcessingEngine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private OverallRatingCoalescer overallRatingCoalescer;
+
+    @Mock
+    private DeadLetterSink deadLetterSink;
+
+    @Mock
+    private ReviewDimensionResolver dimensionResolver;
+
+    @Mock
+    private ListingWatermarkTracker listingWatermarkTracker;
+
     private ReviewProcessingService service;
     private ObjectMapper objectMapper;
+    private StringDictionary stringDictionary;
+    private ExecutorService pipelineExecutor;
 
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
+        stringDictionary = new StringDictionary(1000, new SimpleMeterRegistry());
+        pipelineExecutor = Executors.newCachedThreadPool();
+        IngestionPipeline pipeline = new IngestionPipeline(
+                new StreamingReviewLineParser(objectMapper, stringDictionary), pipelineExecutor, pipelineExecutor);
+        ReflectionTestUtils.setField(pipeline, "blockLines", 1);
+        ReflectionTestUtils.setField(pipeline, "queueDepth", 4);
         service = new ReviewProcessingService(
-                s3Service, reviewRepository, overallRatingRepository, 
-                processedFileRepository, objectMapper);
-        ReflectionTestUtils.setField(service, "batchSize", 100);
+                reviewSource, reviewWriterFactory, processedFileRepository, pipeline, dimensionResolver, fileProcessingEngine,
+                overallRatingCoalescer, stringDictionary, listingWatermarkTracker, deadLetterSink, new TransactionTemplate(transactionManager), entityManager);
+        ReflectionTestUtils.setField(service, "chunkSize", 1000);
+        ReflectionTestUtils.setField(service, "rejectedLogSample", 5);
+        ReflectionTestUtils.setField(service, "rejectedLogIntervalMs", 10000L);
+        lenient().when(reviewWriterFactory.create())
+                .thenAnswer(inv -> new ReviewBatchWriter(reviewBulkRepository, 100));
+        lenient().when(processedFileRepository.save(any())).thenAnswer(inv -> {
+            ProcessedFile file = inv.getArgument(0);
+            file.setId(1L);
+            return file;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipelineExecutor.shutdownNow();
     }
 
     @Test
     void testProcessFile_ValidData() {
         // Given
-        String jsonLine = """
-            {
-                "hotelId": 10984,
-                "platform": "Agoda",
-                "hotelName": "Oscar Saigon Hotel",
-                "comment": {
-                    "hotelReviewId": 948353737,
-                    "providerId": 332,
-                    "rating": 6.4,
-                    "reviewTitle": "Perfect location",
-                    "reviewComments": "Hotel room is basic",
-                    "reviewDate": "2025-04-10T05:37:00+07:00",
-                    "reviewerInfo": {
-                        "countryName": "India",
-                        "displayMemberName": "John Doe"
-                    }
-                },
-                "overallByProviders": []
-            }
-            """;
+        String jsonLine = "{\"hotelId\":10984,\"platform\":\"Agoda\",\"hotelName\":\"Oscar Saigon Hotel\","
+                + "\"comment\":{\"hotelReviewId\":948353737,\"providerId\":332,\"rating\":6.4,"
+                + "\"reviewTitle\":\"Perfect location\",\"reviewComments\":\"Hotel room is basic\","
+                + "\"reviewDate\":\"2025-04-10T05:37:00+07:00\","
+                + "\"reviewerInfo\":{\"countryName\":\"India\",\"displayMemberName\":\"John Doe\"}},"
+                + "\"overallByProviders\":[]}";
 
         S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
                 .key("test-file.jl")
@@ -81,11 +131,8 @@ class ReviewProcessingServiceTest {
                 .size(1000L)
                 .build();
 
-        BufferedReader reader = new BufferedReader(new StringReader(jsonLine));
-        
-        when(s3Service.downloadFile(anyString())).thenReturn(reader);
-        when(reviewRepository.findByReviewIdAndProviderId(anyString(), any())).thenReturn(Optional.empty());
-        when(reviewRepository.save(any(Review.class))).thenReturn(new Review());
+        when(reviewSource.open(any(S3Service.S3FileInfo.class), eq(0L))).thenReturn(stream(jsonLine));
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(1, 0));
 
         // When
         ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
@@ -93,8 +140,12 @@ class ReviewProcessingServiceTest {
         // Then
         assertTrue(result.isSuccess());
         assertEquals(1, result.getRecordsProcessed());
-        verify(reviewRepository).save(any(Review.class));
-        verify(processedFileRepository).save(any());
+        verify(reviewBulkRepository).upsertReviews(argThat(reviews ->
+                reviews.size() == 1 && "948353737".equals(reviews.get(0).getReviewId())));
+        verify(processedFileRepository).save(argThat(file -> file.getStatus() == ProcessedFile.Status.IN_PROGRESS));
+        verify(processedFileRepository).updateCheckpoint(1L, jsonLine.length(), 1L, 1, 0);
+        verify(processedFileRepository).markCompleted(eq(1L), eq(1), eq(0), anyLong(), any());
+        verify(deadLetterSink, never()).write(anyList());
     }
 
     @Test
@@ -108,8 +159,7 @@ class ReviewProcessingServiceTest {
                 .size(1000L)
                 .build();
 
-        BufferedReader reader = new BufferedReader(new StringReader(invalidJsonLine));
-        when(s3Service.downloadFile(anyString())).thenReturn(reader);
+        when(reviewSource.open(any(S3Service.S3FileInfo.class), eq(0L))).thenReturn(stream(invalidJsonLine));
 
         // When
         ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
@@ -117,6 +167,209 @@ class ReviewProcessingServiceTest {
         // Then
         assertTrue(result.isSuccess()); // File processing succeeds even with invalid lines
         assertEquals(0, result.getRecordsProcessed());
-        verify(reviewRepository, never()).save(any());
+        assertEquals(1, result.getFailedLines());
+        verify(reviewBulkRepository, never()).upsertReviews(anyList());
+        verify(deadLetterSink).write(argThat(lines -> lines.size() == 1
+                && lines.get(0).lineNumber() == 1
+                && lines.get(0).rawLine().equals(invalidJsonLine)
+                && lines.get(0).reason().startsWith("unparsable: ")));
+        verify(processedFileRepository).markCompleted(eq(1L), eq(0), eq(1), anyLong(), any());
+    }
+
+    @Test
+    void testProcessFile_RejectedLinesCountTowardChunkSize() {
+        // Given
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        String lines = "{ invalid json }\n{ invalid json }\n{ invalid json }\n" + reviewLine(1);
+        
+        S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                .key("test-file.jl")
+                .lastModified(Instant.now())
+                .size(1000L)
+                .build();
+
+        when(reviewSource.open(any(S3Service.S3FileInfo.class), eq(0L))).thenReturn(stream(lines));
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(1, 0));
+
+        // When
+        ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
+
+        // Then
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getRecordsProcessed());
+        assertEquals(3, result.getFailedLines());
+        verify(deadLetterSink).write(argThat(rejected -> rejected.size() == 2));
+        verify(deadLetterSink).write(argThat(rejected -> rejected.size() == 1));
+        verify(processedFileRepository).updateCheckpoint(eq(1L), anyLong(), eq(2L), eq(0), eq(2));
+        verify(processedFileRepository).updateCheckpoint(eq(1L), anyLong(), eq(4L), eq(1), eq(3));
+    }
+
+    @Test
+    void testProcessFile_FailedChunkOnlyRollsBackThatChunk() {
+        // Given
+        ReflectionTestUtils.setField(service, "chunkSize", 1);
+        String lines = reviewLine(1) + "\n" + reviewLine(2) + "\n" + reviewLine(3);
+        
+        S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                .key("test-file.jl")
+                .lastModified(Instant.now())
+                .size(1000L)
+                .build();
+
+        when(reviewSource.open(any(S3Service.S3FileInfo.class), eq(0L))).thenReturn(stream(lines));
+        when(reviewBulkRepository.upsertReviews(anyList()))
+                .thenReturn(new UpsertCounts(1, 0))
+                .thenThrow(new DataIntegrityViolationException("boom"));
+
+        // When
+        ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
+
+        // Then
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getRecordsProcessed());
+        assertEquals(1, result.getRowsInserted());
+        // One commit opens the checkpoint, one commits the first chunk
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(entityManager, times(1)).clear();
+        verify(processedFileRepository).updateCheckpoint(1L, reviewLine(1).length() + 1, 1L, 1, 0);
+        verify(processedFileRepository, never()).markCompleted(any(), anyInt(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void testProcessFile_ResolvesDimensionsBeforeChunkTransactionOpens() {
+        // Given
+        ReflectionTestUtils.setField(service, "chunkSize", 1);
+        String lines = reviewLine(1) + "\n" + reviewLine(2);
+        
+        S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                .key("test-file.jl")
+                .lastModified(Instant.now())
+                .size(1000L)
+                .build();
+
+        when(reviewSource.open(any(S3Service.S3FileInfo.class), eq(0L))).thenReturn(stream(lines));
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(1, 0));
+
+        // When
+        ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
+
+        // Then
+        assertTrue(result.isSuccess());
+        InOrder inOrder = inOrder(dimensionResolver, transactionManager, reviewBulkRepository);
+        for (String reviewId : List.of("1", "2")) {
+            inOrder.verify(dimensionResolver).resolve(argThat(review -> reviewId.equals(review.getReviewId())));
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(reviewBulkRepository).upsertReviews(argThat(reviews ->
+                    reviews.size() == 1 && reviewId.equals(reviews.get(0).getReviewId())));
+            inOrder.verify(transactionManager).commit(any());
+        }
+    }
+
+    @Test
+    void testProcessFile_ResumesAfterLastCommittedChunk() {
+        // Given
+        String lines = reviewLine(1) + "\n" + reviewLine(2) + "\n" + reviewLine(3) + "\n";
+        long committedOffset = reviewLine(1).length() + 1;
+        S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                .key("test-file.jl")
+                .lastModified(Instant.now())
+                .size((long) lines.length())
+                .build();
+        ProcessedFile checkpoint = ProcessedFile.builder()
+                .id(7L)
+                .filename("test-file.jl")
+                .status(ProcessedFile.Status.IN_PROGRESS)
+                .sourceSize((long) lines.length())
+                .committedOffset(committedOffset)
+                .committedLine(1L)
+                .recordsProcessed(1)
+                .build();
+
+        when(processedFileRepository.findByFilename("test-file.jl")).thenReturn(Optional.of(checkpoint));
+        when(reviewSource.open(fileInfo, committedOffset)).thenReturn(stream(lines.substring((int) committedOffset)));
+        when(reviewBulkRepository.upsertReviews(anyList())).thenReturn(new UpsertCounts(2, 0));
+
+        // When
+        ReviewProcessingService.ProcessingResult result = service.processFile(fileInfo);
+
+        // Then
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getRecordsProcessed());
+        verify(reviewBulkRepository).upsertReviews(argThat(reviews -> reviews.size() == 2
+                && "2".equals(reviews.get(0).getReviewId()) && "3".equals(reviews.get(1).getReviewId())));
+        verify(processedFileRepository, never()).save(any());
+        verify(processedFileRepository).updateCheckpoint(7L, lines.length(), 3L, 3, 0);
+        verify(processedFileRepository).markCompleted(eq(7L), eq(3), eq(0), anyLong(), any());
+    }
+
+    @Test
+    void testProcessAllFiles_SchedulesNewFilesPageByPageAndAdvancesWatermark() {
+        // Given
+        S3Service.S3FileInfo done = S3Service.S3FileInfo.builder().key("daily-reviews/a.jl").size(10L).build();
+        S3Service.S3FileInfo fresh = S3Service.S3FileInfo.builder().key("daily-reviews/b.jl").size(10L).build();
+        S3Service.S3FileInfo failing = S3Service.S3FileInfo.builder().key("daily-reviews/c.jl").size(10L).build();
+        when(reviewSource.getPrefix()).thenReturn("daily-reviews/");
+        when(reviewSource.getCommonPrefix()).thenReturn("daily-reviews/");
+        when(listingWatermarkTracker.startAfter("daily-reviews/")).thenReturn("daily-reviews/0.jl");
+        when(reviewSource.listPages("daily-reviews/0.jl"))
+                .thenReturn(Stream.of(List.of(done, fresh), List.of(failing)));
+        when(processedFileRepository.countCompletedByPrefix("daily-reviews/", "daily-reviews/0.jl")).thenReturn(1L);
+        when(processedFileRepository.streamCompletedFilenamesByPrefix("daily-reviews/", "daily-reviews/0.jl"))
+                .thenReturn(Stream.of("daily-reviews/a.jl"));
+        List<List<S3Service.S3FileInfo>> scheduled = new ArrayList<>();
+        doAnswer(inv -> {
+            Iterator<List<S3Service.S3FileInfo>> batches = inv.getArgument(0);
+            Consumer<ReviewProcessingService.ProcessingResult> onResult = inv.getArgument(2);
+            batches.forEachRemaining(batch -> {
+                scheduled.add(batch);
+                batch.forEach(file -> onResult.accept(ReviewProcessingService.ProcessingResult.builder()
+                        .filename(file.getKey())
+                        .success(file != failing)
+                        .build()));
+            });
+            return null;
+        }).when(fileProcessingEngine).processFiles(any(Iterator.class), any(), any());
+
+        // When
+        service.processAllFiles();
+
+        // Then
+        assertEquals(List.of(List.of(fresh), List.of(failing)), scheduled);
+        verify(processedFileRepository, never()).findByFilename(any());
+        verify(listingWatermarkTracker).advance("daily-reviews/", "daily-reviews/b.jl");
+        verify(overallRatingCoalescer).endRun();
+    }
+
+    @Test
+    void testProcessAllFiles_RatingFlushFailureNeitherMasksRunFailureNorBlocksWatermark() {
+        // Given
+        when(reviewSource.getPrefix()).thenReturn("daily-reviews/");
+        when(reviewSource.getCommonPrefix()).thenReturn("daily-reviews/");
+        when(reviewSource.listPages(any())).thenAnswer(inv -> Stream.of(List.<S3Service.S3FileInfo>of()));
+        when(processedFileRepository.streamCompletedFilenamesByPrefix(any(), any())).thenAnswer(inv -> Stream.empty());
+        when(overallRatingCoalescer.endRun()).thenThrow(new DataIntegrityViolationException("ratings"));
+        doThrow(new IllegalStateException("listing failed")).doNothing()
+                .when(fileProcessingEngine).processFiles(any(Iterator.class), any(), any());
+
+        // When / Then: the run's own failure surfaces, not the flush failure behind it
+        IllegalStateException failure = assertThrows(IllegalStateException.class, service::processAllFiles);
+        assertEquals("listing failed", failure.getMessage());
+        verify(listingWatermarkTracker, never()).advance(any(), any());
+
+        // ...and a clean run still advances the watermark before its flush fails
+        assertThrows(DataIntegrityViolationException.class, service::processAllFiles);
+        verify(listingWatermarkTracker).advance(eq("daily-reviews/"), any());
+        verify(reviewSource, times(2)).discardPrefetched();
+    }
+
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String reviewLine(long reviewId) {
+        return "{\"hotelId\":10984,\"platform\":\"Agoda\",\"comment\":{\"hotelReviewId\":" + reviewId
+                + ",\"providerId\":332,\"rating\":6.4}}";
     }
 }
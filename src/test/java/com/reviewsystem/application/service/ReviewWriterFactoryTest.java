@@ -0,0 +1,77 @@
+package com.reviewsystem.application.service;
+
+import com.reviewsystem.infrastructure.repository.ReviewBulkRepository;
+import com.reviewsystem.infrastructure.repository.ReviewCopyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewWriterFactoryTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    @Mock
+    private ReviewBulkRepository reviewBulkRepository;
+
+    @Mock
+    private ReviewCopyRepository reviewCopyRepository;
+
+    private ReviewWriterFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ReviewWriterFactory(dataSource, reviewBulkRepository, reviewCopyRepository);
+        ReflectionTestUtils.setField(factory, "batchSize", 100);
+    }
+
+    @Test
+    void testCreate_CopyModeFallsBackToBatchOnH2() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(factory, "persistenceMode", "copy");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        // When
+        ReviewWriter writer = factory.create();
+
+        // Then
+        assertInstanceOf(ReviewBatchWriter.class, writer);
+        assertEquals(ReviewWriterFactory.MODE_BATCH, factory.getEffectiveMode());
+        verifyNoInteractions(reviewCopyRepository);
+    }
+
+    @Test
+    void testCreate_CopyModeOnPostgres() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(factory, "persistenceMode", "copy");
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+
+        // When
+        ReviewWriter writer = factory.create();
+
+        // Then
+        assertInstanceOf(ReviewCopyWriter.class, writer);
+        verify(reviewCopyRepository).openLoad();
+    }
+}
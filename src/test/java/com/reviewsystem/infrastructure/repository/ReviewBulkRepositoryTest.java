@@ -0,0 +1,123 @@
+package com.reviewsystem.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewsystem.domain.model.OverallRating;
+import com.reviewsystem.domain.model.Review;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewBulkRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ReviewBulkRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReviewBulkRepository(jdbcTemplate, new ObjectMapper());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testUpsertReviews_SendsOneReturningStatementPer500Rows() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(ResultSetExtractor.class)))
+                .thenReturn(new UpsertCounts(400, 100), new UpsertCounts(500, 0), new UpsertCounts(0, 200));
+        List<Review> reviews = IntStream.range(0, 1200)
+                .mapToObj(i -> Review.builder().reviewId(String.valueOf(i)).providerId(1L).build())
+                .toList();
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+
+        // When
+        UpsertCounts counts = repository.upsertReviews(reviews);
+
+        // Then
+        verify(jdbcTemplate, times(3)).query(sql.capture(), any(PreparedStatementSetter.class),
+                any(ResultSetExtractor.class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertEquals(new UpsertCounts(900, 300), counts);
+        assertSame(sql.getAllValues().get(0), sql.getAllValues().get(1));
+        assertTrue(sql.getAllValues().get(2).endsWith(ReviewBulkRepository.RETURNING_INSERTED));
+        assertEquals(200, rowCount(sql.getAllValues().get(2)));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testUpsertReviews_BindsRowsInKeyOrder() throws SQLException {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(ResultSetExtractor.class)))
+                .thenReturn(new UpsertCounts(3, 0));
+        List<Review> reviews = List.of(
+                Review.builder().reviewId("b").providerId(1L).build(),
+                Review.builder().reviewId("a").providerId(2L).build(),
+                Review.builder().reviewId("a").providerId(1L).build());
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+
+        // When
+        repository.upsertReviews(reviews);
+
+        // Then
+        verify(jdbcTemplate).query(anyString(), setter.capture(), any(ResultSetExtractor.class));
+        setter.getValue().setValues(ps);
+        InOrder inOrder = inOrder(ps);
+        inOrder.verify(ps).setObject(2, "a", Types.VARCHAR);
+        inOrder.verify(ps).setObject(3, 1L, Types.BIGINT);
+        inOrder.verify(ps).setObject(22, "a", Types.VARCHAR);
+        inOrder.verify(ps).setObject(23, 2L, Types.BIGINT);
+        inOrder.verify(ps).setObject(42, "b", Types.VARCHAR);
+    }
+
+    @Test
+    void testUpsertOverallRatings_BatchesFullStatementsWithoutReturning() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[] {500, 120});
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(30);
+        List<OverallRating> ratings = IntStream.range(0, 1030)
+                .mapToObj(i -> OverallRating.builder().hotelId((long) i).providerId(1L).build())
+                .toList();
+        ArgumentCaptor<String> batchSql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        ArgumentCaptor<String> restSql = ArgumentCaptor.forClass(String.class);
+
+        // When
+        int written = repository.upsertOverallRatings(ratings);
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(batchSql.capture(), setter.capture());
+        verify(jdbcTemplate).update(restSql.capture(), any(PreparedStatementSetter.class));
+        assertEquals(650, written);
+        assertEquals(2, setter.getValue().getBatchSize());
+        assertEquals(500, rowCount(batchSql.getValue()));
+        assertEquals(30, rowCount(restSql.getValue()));
+        assertFalse(batchSql.getValue().contains("RETURNING"));
+    }
+
+    private static int rowCount(String sql) {
+        return sql.substring(sql.indexOf(" VALUES ")).split("\\),\\(").length;
+    }
+}
@@ -0,0 +1,78 @@
+package com.reviewsystem.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDownloadInputStreamTest {
+
+    @Test
+    void testRead_RequestsChunksOnlyWhileBelowReadAhead() throws IOException {
+        // Given: room for eight bytes ahead of the reader
+        AsyncDownloadInputStream stream = new AsyncDownloadInputStream(8);
+        CountingSubscription subscription = new CountingSubscription();
+        stream.onSubscribe(subscription);
+
+        // When: the publisher answers every request with a five-byte chunk
+        stream.onNext(chunk("{\"a\":"));
+        stream.onNext(chunk("1}\n{\""));
+
+        // Then: ten bytes are buffered, so no third chunk is requested until the reader catches up
+        assertEquals(2, subscription.requested);
+        assertEquals(10, stream.bufferedBytes());
+
+        byte[] buffer = new byte[4];
+        assertEquals(4, stream.read(buffer));
+        assertEquals(3, subscription.requested);
+
+        stream.onNext(chunk("b\":2}"));
+        stream.onComplete();
+        assertEquals("{\"a\":1}\n{\"b\":2}", "{\"a\"" + new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    void testRead_SurfacesFailedRequestAndCancelsOnClose() {
+        // Given
+        AsyncDownloadInputStream failed = new AsyncDownloadInputStream(8);
+        AsyncDownloadInputStream abandoned = new AsyncDownloadInputStream(8);
+        CountingSubscription subscription = new CountingSubscription();
+        abandoned.onSubscribe(subscription);
+
+        // When
+        failed.onError(new CompletionException(NoSuchKeyException.builder().message("missing").build()));
+        abandoned.close();
+
+        // Then
+        IOException error = assertThrows(IOException.class, failed::read);
+        assertInstanceOf(NoSuchKeyException.class, error.getCause());
+        assertTrue(subscription.cancelled);
+        assertThrows(IOException.class, abandoned::read);
+    }
+
+    private static ByteBuffer chunk(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class CountingSubscription implements Subscription {
+        private long requested;
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
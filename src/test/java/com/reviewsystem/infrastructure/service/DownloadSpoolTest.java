@@ -0,0 +1,158 @@
+package com.reviewsystem.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadSpoolTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Each object's content is its key, so sizes are key lengths
+        lenient().when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(), AbortableInputStream.create(
+                    new ByteArrayInputStream(request.key().getBytes(StandardCharsets.UTF_8))));
+        });
+    }
+
+    @Test
+    void testPlan_PrefetchesLargestFilesWithinBudgetAndRefillsOnRelease() throws IOException {
+        // Given: room for two of the three files
+        DownloadSpool spool = spool(20, 4);
+        S3Service.S3FileInfo small = file("s.jl");
+        S3Service.S3FileInfo medium = file("mm.jl");
+        S3Service.S3FileInfo large = file("lllllllll.jl");
+
+        // When
+        spool.plan(List.of(small, large, medium));
+
+        // Then
+        verify(s3Client, never()).getObject(argThat((GetObjectRequest request) -> "s.jl".equals(request.key())));
+        Path spooled = spool.claim(large);
+        assertEquals("lllllllll.jl", Files.readString(spooled));
+        assertEquals(17, spool.reservedBytes());
+
+        spool.release(large.getKey());
+        assertFalse(Files.exists(spooled));
+        assertEquals(9, spool.reservedBytes());
+        assertNotNull(spool.claim(small));
+        assertEquals(2.0, meterRegistry.counter("review.spool.opens", "result", "hit").count());
+    }
+
+    @Test
+    void testClaim_UnplannedFileIsReadFromS3AndNeverPrefetched() {
+        // Given
+        DownloadSpool spool = spool(1000, 1);
+        S3Service.S3FileInfo taken = file("taken.jl");
+
+        // When
+        Path spooled = spool.claim(taken);
+        spool.plan(List.of(taken));
+
+        // Then
+        assertNull(spooled);
+        verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+        assertEquals(1.0, meterRegistry.counter("review.spool.opens", "result", "miss").count());
+    }
+
+    @Test
+    void testPlan_KeysThatFlattenAlikeSpoolToSeparateFiles() throws IOException {
+        // Given
+        DownloadSpool spool = spool(1000, 2);
+        S3Service.S3FileInfo nested = file("a/b_c.jl");
+        S3Service.S3FileInfo flat = file("a_b/c.jl");
+
+        // When
+        spool.plan(List.of(nested, flat));
+
+        // Then
+        Path nestedCopy = spool.claim(nested);
+        Path flatCopy = spool.claim(flat);
+        assertNotEquals(nestedCopy, flatCopy);
+        assertEquals("a/b_c.jl", Files.readString(nestedCopy));
+        assertEquals("a_b/c.jl", Files.readString(flatCopy));
+    }
+
+    @Test
+    void testClear_DeletesUnclaimedFiles() throws IOException {
+        // Given
+        DownloadSpool spool = spool(1000, 2);
+        spool.plan(List.of(file("a.jl"), file("b.jl")));
+
+        // When
+        spool.clear();
+
+        // Then
+        try (var remaining = Files.list(directory)) {
+            assertEquals(0, remaining.count());
+        }
+        assertEquals(0, spool.reservedBytes());
+    }
+
+    @Test
+    void testOpenFile_ReadsSpooledCopyFromOffsetAndDeletesItOnClose() throws IOException {
+        // Given
+        DownloadSpool spool = spool(1000, 1);
+        S3Service s3Service = new S3Service(s3Client, Runnable::run, Runnable::run, meterRegistry, spool,
+                new ObjectCache(meterRegistry, "test-bucket", false, "object-cache", 0, true, false), Optional.empty());
+        S3Service.S3FileInfo file = file("daily-reviews/a.jl");
+        s3Service.prefetch(List.of(file));
+
+        // When
+        String rest;
+        try (InputStream in = s3Service.open(file, 8)) {
+            rest = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Then
+        assertEquals("views/a.jl", rest);
+        verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+        assertEquals(0, spool.reservedBytes());
+        try (var remaining = Files.list(directory)) {
+            assertEquals(0, remaining.count());
+        }
+    }
+
+    private DownloadSpool spool(long maxBytes, int prefetchFiles) {
+        return new DownloadSpool(s3Client, Runnable::run, meterRegistry, "test-bucket", true,
+                directory.toString(), maxBytes, prefetchFiles);
+    }
+
+    private static S3Service.S3FileInfo file(String key) {
+        return S3Service.S3FileInfo.builder().key(key).size((long) key.length()).build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.reviewsystem.infrastructure.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDirectoryReviewSourceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testListPages_ListsReviewFilesInKeyOrderAfterStart() throws IOException {
+        // Given
+        write("2025/01/02/b.jl", "b");
+        write("2025/01/01/a.jl.gz", "a");
+        write("2025/01/01/0.jl", "0");
+        write("2025/01/01/notes.txt", "n");
+        LocalDirectoryReviewSource source = new LocalDirectoryReviewSource(directory.toString(), Runnable::run);
+
+        String prefix = directory.toUri().toString();
+
+        // When
+        List<String> keys;
+        try (Stream<List<S3Service.S3FileInfo>> pages = source.listPages(prefix + "2025/01/01/0.jl")) {
+            keys = pages.flatMap(List::stream).map(S3Service.S3FileInfo::getKey).toList();
+        }
+
+        // Then
+        assertEquals(prefix, source.getCommonPrefix());
+        assertEquals(List.of(prefix + "2025/01/01/a.jl.gz", prefix + "2025/01/02/b.jl"), keys);
+    }
+
+    @Test
+    void testOpenRange_RangesPartitionLines() throws IOException {
+        // Given
+        String content = "{\"a\":1}\n{\"b\":22}\n\n{\"c\":333}\n{\"d\":4444}\n{\"e\":5}";
+        S3Service.S3FileInfo file = write("a.jl", content);
+        LocalDirectoryReviewSource source = new LocalDirectoryReviewSource(directory.toString(), Runnable::run);
+
+        for (long partSize = 1; partSize <= content.length() + 1; partSize++) {
+            // When
+            StringBuilder joined = new StringBuilder();
+            for (S3Service.ByteRange range : S3Service.planRanges(content.length(), partSize)) {
+                joined.append(read(source.openRange(file, range.start(), range.end())));
+            }
+
+            // Then
+            assertEquals(content, joined.toString(), "part size " + partSize);
+        }
+    }
+
+    @Test
+    void testOpen_RejectsKeysOutsideTheDirectory() throws IOException {
+        // Given
+        write("a.jl", "{\"a\":1}\n");
+        LocalDirectoryReviewSource source = new LocalDirectoryReviewSource(directory.toString(), Runnable::run);
+        S3Service.S3FileInfo s3Key = S3Service.S3FileInfo.builder().key("a.jl").build();
+        S3Service.S3FileInfo escaping = S3Service.S3FileInfo.builder()
+                .key(directory.toUri() + "../a.jl")
+                .build();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> source.open(s3Key, 0));
+        assertThrows(IllegalArgumentException.class, () -> source.open(escaping, 0));
+    }
+
+    @Test
+    void testOpen_DecompressesAndResumesInDecompressedBytes() throws IOException {
+        // Given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"a\":1}\n{\"b\":2}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(directory.resolve("a.jl.gz"), compressed.toByteArray());
+        LocalDirectoryReviewSource source = new LocalDirectoryReviewSource(directory.toString(), Runnable::run);
+        S3Service.S3FileInfo file = S3Service.S3FileInfo.builder()
+                .key(directory.resolve("a.jl.gz").toUri().toString())
+                .build();
+
+        // When
+        String rest = read(source.open(file, 8));
+
+        // Then
+        assertEquals("{\"b\":2}\n", rest);
+        assertThrows(IllegalArgumentException.class, () -> source.openRange(file, 0, 4));
+    }
+
+    private S3Service.S3FileInfo write(String key, String content) throws IOException {
+        Path path = directory.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        return S3Service.S3FileInfo.builder().key(path.toUri().toString()).size(Files.size(path)).build();
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        try (InputStream in = stream) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
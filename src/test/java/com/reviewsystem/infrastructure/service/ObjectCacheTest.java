@@ -0,0 +1,143 @@
+package com.reviewsystem.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObjectCacheTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testPut_StoresVerifiedCopyAndEvictsLeastRecentlyUsed() throws IOException {
+        // Given: room for two four-byte objects
+        ObjectCache cache = cache(8);
+        S3Service.S3FileInfo a = file("a.jl", "aaaa");
+        S3Service.S3FileInfo b = file("b.jl", "bbbb");
+        S3Service.S3FileInfo c = file("c.jl", "cccc");
+        cache.put(a, content("aaaa"));
+        cache.put(b, content("bbbb"));
+
+        // When: a is read again, so b is the least recently used
+        assertNotNull(cache.get(a));
+        cache.put(c, content("cccc"));
+
+        // Then
+        assertEquals("aaaa", Files.readString(cache.get(a)));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertEquals(8, cache.totalBytes());
+    }
+
+    @Test
+    void testPut_RejectsCopyThatDoesNotMatchEtag() {
+        // Given
+        ObjectCache cache = cache(100);
+        S3Service.S3FileInfo file = file("a.jl", "aaaa");
+
+        // When / Then
+        assertThrows(IOException.class, () -> cache.put(file, content("abcd")));
+        assertNull(cache.get(file));
+        assertEquals(0, cache.totalBytes());
+    }
+
+    @Test
+    void testGet_DropsCopyChangedOnDiskWhenVerifyingReads() throws IOException {
+        // Given
+        ObjectCache cache = new ObjectCache(meterRegistry, "test-bucket", true, directory.toString(), 100, true, true);
+        S3Service.S3FileInfo file = file("a.jl", "aaaa");
+        Path cached = cache.put(file, content("aaaa"));
+        Files.writeString(cached, "abcd");
+
+        // When
+        Path result = cache.get(file);
+
+        // Then
+        assertNull(result);
+        assertFalse(Files.exists(cached));
+        assertEquals(1.0, meterRegistry.counter("review.cache.reads", "result", "rejected").count());
+    }
+
+    @Test
+    void testOpenFile_RepeatRunsReadFromCacheAcrossRestarts() throws IOException {
+        // Given
+        S3Service.S3FileInfo file = file("daily-reviews/a.jl", "{\"a\":1}\n{\"b\":2}\n");
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation ->
+                new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(content("{\"a\":1}\n{\"b\":2}\n"))));
+
+        // When
+        String first = read(s3Service(cache(100)), file, 0);
+        String second = read(s3Service(cache(100)), file, 8);
+
+        // Then
+        assertEquals("{\"a\":1}\n{\"b\":2}\n", first);
+        assertEquals("{\"b\":2}\n", second);
+        verify(s3Client, times(1)).getObject(any(GetObjectRequest.class));
+    }
+
+    private S3Service s3Service(ObjectCache cache) {
+        return new S3Service(s3Client, Runnable::run, Runnable::run, meterRegistry,
+                new DownloadSpool(s3Client, Runnable::run, meterRegistry, "test-bucket", false, "spool", 0, 1),
+                cache, Optional.empty());
+    }
+
+    private ObjectCache cache(long maxBytes) {
+        return new ObjectCache(meterRegistry, "test-bucket", true, directory.toString(), maxBytes, true, false);
+    }
+
+    private static String read(S3Service s3Service, S3Service.S3FileInfo file, long offset) throws IOException {
+        try (InputStream in = s3Service.open(file, offset)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static S3Service.S3FileInfo file(String key, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try {
+            String md5 = HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes));
+            return S3Service.S3FileInfo.builder().key(key).size((long) bytes.length).eTag("\"" + md5 + "\"").build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reviewsystem.infrastructure.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangedDownloadInputStreamTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testClose_StopsPartsStillDownloadingAndSkipsUnstartedOnes() throws Exception {
+        // Given: the first part is ready at once, the others stream until they are told to stop
+        List<S3Service.ByteRange> ranges = S3Service.planRanges(50, 10);
+        Set<Long> started = ConcurrentHashMap.newKeySet();
+        CountDownLatch streaming = new CountDownLatch(2);
+        CountDownLatch stopped = new CountDownLatch(2);
+        RangedDownloadInputStream.RangeFetcher fetcher = (range, cancelled) -> {
+            started.add(range.start());
+            if (range.start() == 0) {
+                return new byte[10];
+            }
+            streaming.countDown();
+            while (!cancelled.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+            throw new CancellationException("cancelled");
+        };
+        InputStream stream = new RangedDownloadInputStream(ranges, fetcher, executor, 2);
+
+        // When
+        assertEquals(10, stream.readNBytes(10).length);
+        assertTrue(streaming.await(5, TimeUnit.SECONDS));
+        stream.close();
+
+        // Then
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of(0L, 10L, 20L), started);
+        assertThrows(IOException.class, stream::read);
+    }
+}
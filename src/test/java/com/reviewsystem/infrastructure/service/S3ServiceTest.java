@@ -1,19 +1,44 @@
 package com.reviewsystem.infrastructure.service;
 
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,16 +48,28 @@ class S3ServiceTest {
     private S3Client s3Client;
 
     private S3Service s3Service;
+    private ExecutorService decompressionExecutor;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        s3Service = new S3Service(s3Client);
+        decompressionExecutor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        s3Service = new S3Service(s3Client, Runnable::run, decompressionExecutor, meterRegistry,
+                new DownloadSpool(s3Client, Runnable::run, meterRegistry, "test-bucket", false, "spool", 0, 1),
+                new ObjectCache(meterRegistry, "test-bucket", false, "object-cache", 0, true, false),
+                Optional.empty());
         ReflectionTestUtils.setField(s3Service, "bucketName", "test-bucket");
         ReflectionTestUtils.setField(s3Service, "prefix", "test-prefix/");
     }
 
+    @AfterEach
+    void tearDown() {
+        decompressionExecutor.shutdownNow();
+    }
+
     @Test
-    void testListJsonlFiles() {
+    void testListPages_ListsOnlyReviewFiles() {
         // Given
         S3Object s3Object1 = S3Object.builder()
                 .key("test-prefix/file1.jl")
@@ -51,13 +88,302 @@ class S3ServiceTest {
                 .isTruncated(false)
                 .build();
 
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenCallRealMethod();
         when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(response);
 
         // When
-        List<S3Service.S3FileInfo> files = s3Service.listJsonlFiles();
+        List<S3Service.S3FileInfo> files;
+        try (Stream<List<S3Service.S3FileInfo>> pages = s3Service.listPages(null)) {
+            files = pages.flatMap(List::stream).toList();
+        }
 
         // Then
         assertEquals(1, files.size());
         assertEquals("test-prefix/file1.jl", files.get(0).getKey());
     }
+
+    @Test
+    void testListJsonlFilePages_FetchesPagesOnDemand() {
+        // Given
+        ListObjectsV2Response first = ListObjectsV2Response.builder()
+                .contents(S3Object.builder().key("test-prefix/a.jl").size(1L).build())
+                .isTruncated(true)
+                .nextContinuationToken("page-2")
+                .build();
+        ListObjectsV2Response second = ListObjectsV2Response.builder()
+                .contents(S3Object.builder().key("test-prefix/b.jl.gz").size(1L).build())
+                .isTruncated(false)
+                .build();
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenCallRealMethod();
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(first, second);
+
+        // When
+        Iterator<List<S3Service.S3FileInfo>> pages = s3Service.listPages("test-prefix/0.jl").iterator();
+        List<S3Service.S3FileInfo> firstPage = pages.next();
+
+        // Then
+        assertEquals("test-prefix/a.jl", firstPage.get(0).getKey());
+        verify(s3Client, times(1)).listObjectsV2(argThat((ListObjectsV2Request request) ->
+                "test-prefix/0.jl".equals(request.startAfter())));
+        assertEquals("test-prefix/b.jl.gz", pages.next().get(0).getKey());
+        assertFalse(pages.hasNext());
+        verify(s3Client).listObjectsV2(argThat((ListObjectsV2Request request) ->
+                "page-2".equals(request.continuationToken())));
+    }
+
+    @Test
+    void testListJsonlFilePages_ExpandsGlobsIntoPartitionsAndMergesInKeyOrder() {
+        // Given
+        ReflectionTestUtils.setField(s3Service, "prefix", "test-prefix/2025/0?/, test-prefix/2024/12/");
+        ReflectionTestUtils.setField(s3Service, "partitionDepth", 1);
+        ReflectionTestUtils.setField(s3Service, "listingConcurrency", 2);
+        serveBucket(List.of(
+                "test-prefix/2024/11/01/a.jl",
+                "test-prefix/2024/12/31/a.jl",
+                "test-prefix/2025/01/01/a.jl",
+                "test-prefix/2025/01/01/c.jl",
+                "test-prefix/2025/01/02/a.jl.gz",
+                "test-prefix/2025/02/01/a.jl",
+                "test-prefix/2025/02/notes.txt",
+                "test-prefix/2025/10/01/a.jl"));
+
+        // When
+        List<String> keys;
+        try (var pages = s3Service.listPages("test-prefix/2025/01/01/b.jl")) {
+            keys = pages.flatMap(List::stream).map(S3Service.S3FileInfo::getKey).toList();
+        }
+
+        // Then
+        assertEquals(List.of("test-prefix/2025/01/01/c.jl", "test-prefix/2025/01/02/a.jl.gz",
+                "test-prefix/2025/02/01/a.jl"), keys);
+        verify(s3Client, never()).listObjectsV2(argThat((ListObjectsV2Request request) ->
+                request.prefix().startsWith("test-prefix/2024/12/31/")
+                        || request.prefix().startsWith("test-prefix/2025/10/")));
+        assertEquals("test-prefix/202", s3Service.getCommonPrefix());
+    }
+
+    @Test
+    void testListJsonlFilePages_ListsNestedPrefixesOnce() {
+        // Given
+        ReflectionTestUtils.setField(s3Service, "prefix", "test-prefix/2025/,test-prefix/");
+        serveBucket(List.of("test-prefix/2024/a.jl", "test-prefix/2025/a.jl"));
+
+        // When
+        List<String> keys;
+        try (var pages = s3Service.listPages(null)) {
+            keys = pages.flatMap(List::stream).map(S3Service.S3FileInfo::getKey).toList();
+        }
+
+        // Then
+        assertEquals(List.of("test-prefix/2024/a.jl", "test-prefix/2025/a.jl"), keys);
+        verify(s3Client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    // Answers ListObjectsV2 (prefix, delimiter, startAfter) from an in-memory sorted key set, one page per call
+    private void serveBucket(List<String> keys) {
+        when(s3Client.listObjectsV2Paginator(any(ListObjectsV2Request.class))).thenCallRealMethod();
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            List<S3Object> contents = new ArrayList<>();
+            Set<String> commonPrefixes = new TreeSet<>();
+            for (String key : keys) {
+                if (!key.startsWith(request.prefix())
+                        || (request.startAfter() != null && key.compareTo(request.startAfter()) <= 0)) {
+                    continue;
+                }
+                int delimiter = request.delimiter() == null
+                        ? -1 : key.indexOf(request.delimiter(), request.prefix().length());
+                if (delimiter >= 0) {
+                    commonPrefixes.add(key.substring(0, delimiter + 1));
+                } else {
+                    contents.add(S3Object.builder().key(key).size(1L).build());
+                }
+            }
+            return ListObjectsV2Response.builder()
+                    .contents(contents)
+                    .commonPrefixes(commonPrefixes.stream()
+                            .map(prefix -> CommonPrefix.builder().prefix(prefix).build())
+                            .toList())
+                    .isTruncated(false)
+                    .build();
+        });
+    }
+
+    @Test
+    void testReadAlignedRange_RangesPartitionLines() {
+        // Given: a local stand-in serving byte ranges of an in-memory object
+        byte[] content = ("{\"a\":1}\n{\"b\":22}\n\n{\"c\":333}\n{\"d\":4444}\n{\"e\":5}")
+                .getBytes(StandardCharsets.UTF_8);
+        serveObject(content);
+
+        for (long partSize = 1; partSize <= content.length + 1; partSize++) {
+            // When
+            ByteArrayOutputStream joined = new ByteArrayOutputStream();
+            List<S3Service.ByteRange> ranges = S3Service.planRanges(content.length, partSize);
+            for (S3Service.ByteRange range : ranges) {
+                byte[] part = s3Service.readAlignedRange("test-prefix/file1.jl", range);
+                joined.writeBytes(part);
+                // Then: every range ends on a line boundary or at the end of the object
+                if (part.length > 0 && joined.size() < content.length) {
+                    assertEquals('\n', part[part.length - 1], "part size " + partSize);
+                }
+            }
+            // ...and together they cover the object exactly once
+            assertArrayEquals(content, joined.toByteArray(), "part size " + partSize);
+        }
+    }
+
+    @Test
+    void testOpenRange_ReadsAlignedLinesAndRejectsCompressedObjects() throws IOException {
+        // Given
+        byte[] content = "{\"a\":1}\n{\"b\":22}\n{\"c\":333}\n".getBytes(StandardCharsets.UTF_8);
+        serveObject(content);
+        S3Service.S3FileInfo plain = S3Service.S3FileInfo.builder().key("test-prefix/file1.jl").build();
+        S3Service.S3FileInfo gzipped = S3Service.S3FileInfo.builder().key("test-prefix/file1.jl.gz").build();
+
+        // When
+        byte[] middle;
+        try (InputStream in = s3Service.openRange(plain, 3, 12)) {
+            middle = in.readAllBytes();
+        }
+
+        // Then
+        assertEquals("{\"b\":22}\n", new String(middle, StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> s3Service.openRange(gzipped, 0, 4));
+    }
+
+    @Test
+    void testReadAlignedRange_BoundsRequestsAndFollowsLongLines() {
+        // Given: a line straddling the range end that runs well past the slack read with it
+        String longLine = "{\"reviewComments\":\"" + "x".repeat(200_000) + "\"}\n";
+        byte[] content = ("{\"a\":1}\n" + longLine + "{\"b\":2}\n").getBytes(StandardCharsets.UTF_8);
+        serveObject(content);
+        ArgumentCaptor<GetObjectRequest> requests = ArgumentCaptor.forClass(GetObjectRequest.class);
+
+        // When
+        byte[] first = s3Service.readAlignedRange("test-prefix/file1.jl", new S3Service.ByteRange(0, 10));
+        byte[] second = s3Service.readAlignedRange("test-prefix/file1.jl", new S3Service.ByteRange(10, content.length));
+
+        // Then
+        assertEquals("{\"a\":1}\n" + longLine, new String(first, StandardCharsets.UTF_8));
+        assertEquals("{\"b\":2}\n", new String(second, StandardCharsets.UTF_8));
+        verify(s3Client, atLeast(4)).getObject(requests.capture());
+        assertTrue(requests.getAllValues().stream().noneMatch(request -> request.range().endsWith("-")));
+        assertEquals("bytes=0-" + (9 + 64 * 1024), requests.getAllValues().get(0).range());
+    }
+
+    @Test
+    void testReadAlignedRange_CancelledDownloadAbortsResponse() {
+        // Given
+        AtomicBoolean aborted = new AtomicBoolean();
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream(new byte[1024]), () -> aborted.set(true))));
+
+        // When / Then
+        assertThrows(CancellationException.class, () -> s3Service.readAlignedRange("test-prefix/file1.jl",
+                new S3Service.ByteRange(0, 1024), () -> true));
+        assertTrue(aborted.get());
+    }
+
+    @Test
+    void testOpenFile_RangedModeReassemblesObjectFromOffset() throws IOException {
+        // Given
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            lines.append("{\"hotelId\":").append(i).append(",\"hotelName\":\"Hôtel ").append(i).append("\"}\n");
+        }
+        byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8);
+        serveObject(content);
+        ReflectionTestUtils.setField(s3Service, "rangedDownloadEnabled", true);
+        ReflectionTestUtils.setField(s3Service, "rangedDownloadThreshold", 1024L);
+        ReflectionTestUtils.setField(s3Service, "rangePartSize", 777L);
+        ReflectionTestUtils.setField(s3Service, "rangeConcurrency", 3);
+
+        S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                .key("test-prefix/file1.jl")
+                .size((long) content.length)
+                .build();
+
+        int resumeOffset = lines.indexOf("{\"hotelId\":500,");
+        resumeOffset = lines.substring(0, resumeOffset).getBytes(StandardCharsets.UTF_8).length;
+
+        // When
+        byte[] downloaded;
+        byte[] resumed;
+        try (InputStream in = s3Service.open(fileInfo, 0)) {
+            downloaded = in.readAllBytes();
+        }
+        try (InputStream in = s3Service.open(fileInfo, resumeOffset)) {
+            resumed = in.readAllBytes();
+        }
+
+        // Then
+        assertArrayEquals(content, downloaded);
+        assertArrayEquals(Arrays.copyOfRange(content, resumeOffset, content.length), resumed);
+        verify(s3Client, atLeast(content.length / 777)).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void testOpenFile_DecompressesBySuffixAndResumesInDecompressedBytes() throws IOException {
+        // Given
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            lines.append("{\"hotelId\":").append(i).append(",\"reviewComments\":\"Great stay\"}\n");
+        }
+        byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(content);
+        }
+        int offset = lines.indexOf("{\"hotelId\":15000,");
+
+        for (Map.Entry<String, byte[]> object : Map.of(
+                "test-prefix/file1.jl.gz", gzipped.toByteArray(),
+                "test-prefix/file1.jl.zst", Zstd.compress(content)).entrySet()) {
+            serveObject(object.getValue());
+            S3Service.S3FileInfo fileInfo = S3Service.S3FileInfo.builder()
+                    .key(object.getKey())
+                    .size((long) object.getValue().length)
+                    .build();
+
+            // When
+            byte[] whole;
+            byte[] resumed;
+            try (InputStream in = s3Service.open(fileInfo, 0)) {
+                whole = in.readAllBytes();
+            }
+            try (InputStream in = s3Service.open(fileInfo, offset)) {
+                resumed = in.readAllBytes();
+            }
+
+            // Then
+            assertArrayEquals(content, whole, object.getKey());
+            assertArrayEquals(Arrays.copyOfRange(content, offset, content.length), resumed, object.getKey());
+        }
+        assertEquals(2.0 * content.length, meterRegistry.get("review.decompress.output.bytes")
+                .tag("codec", "zstd").counter().count(), 1.0);
+        assertEquals(2, meterRegistry.get("review.decompress.time").tag("codec", "gzip").timer().count());
+    }
+
+    // Serves "bytes=first-" and "bytes=first-last" ranges the way S3 does, including Content-Range
+    private void serveObject(byte[] content) {
+        when(s3Client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            if (request.range() == null) {
+                return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(content)));
+            }
+            String[] bounds = request.range().substring("bytes=".length()).split("-", -1);
+            int from = Integer.parseInt(bounds[0]);
+            int to = bounds[1].isEmpty() ? content.length - 1
+                    : (int) Math.min(content.length - 1, Long.parseLong(bounds[1]));
+            assertTrue(from < content.length, "unsatisfiable range " + request.range());
+            return new ResponseInputStream<>(
+                    GetObjectResponse.builder()
+                            .contentRange("bytes " + from + "-" + to + "/" + content.length)
+                            .build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(content, from, to - from + 1)));
+        });
+    }
 }